@@ -0,0 +1,28 @@
+package globaldormclient;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+    private final String proximityResponse = "{\"routes\":[{\"distance\":12345.6,\"duration\":987.0,"
+            + "\"geometry\":\"abc\",\"legs\":[{\"steps\":[],\"summary\":\"\",\"weight\":987.0}]}],\"code\":\"Ok\"}";
+    private final String weatherResponse = "{\"roomId\":3,\"postcode\":\"NG1 4BU\","
+            + "\"weather\":{\"timepoint\":3,\"temperature\":12,\"cloudcover\":4,\"prec_type\":\"none\"}}";
+
+    @Benchmark
+    public double parseDistanceFromResponse() {
+        return ProximityService.parseDistanceFromResponse(proximityResponse);
+    }
+
+    @Benchmark
+    public Weather parseWeather() {
+        return WeatherCache.parse(weatherResponse);
+    }
+}
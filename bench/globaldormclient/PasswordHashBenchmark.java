@@ -0,0 +1,26 @@
+package globaldormclient;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordHashBenchmark {
+    private final String password = "correct horse battery staple";
+    private final String storedHash = PasswordHasher.hash(password);
+
+    @Benchmark
+    public String hashPassword() {
+        return PasswordHasher.hash(password);
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return PasswordHasher.verify(password, storedHash);
+    }
+}
@@ -0,0 +1,63 @@
+package globaldormclient;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local room searches against generated catalogues of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoomQueryBenchmark {
+    private static final String[] CITIES = {"London", "Manchester", "Nottingham", "Birmingham", "Leeds", "Edinburgh"};
+    private static final String[] POSTCODES = {"SW1A 1AA", "M1 1AE", "NG1 4BU", "NG7 2RD", "B1 1AA", "LS1 1UR", "EH1 1YZ"};
+
+    @Param({"1000", "50000"})
+    public int rooms;
+
+    private RoomIndex index;
+    private final RoomQuery nearAndCheap = RoomQuery.parse("price < 600 and near NG1 4BU and available >= 2025-09-01 sort price limit 10");
+    private final RoomQuery cityByDate = RoomQuery.parse("city = Leeds and price >= 1000 sort available desc limit 20");
+    private final RoomQuery priceBand = RoomQuery.parse("price >= 700 and price <= 705");
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        Random random = new Random(42);
+        List<Room> catalogue = new ArrayList<>(rooms);
+        for (int i = 0; i < rooms; i++) {
+            Room room = new Room();
+            room.setId(i + 1);
+            room.setName("Room " + (i + 1));
+            room.setCity(CITIES[random.nextInt(CITIES.length)]);
+            room.setPostcode(POSTCODES[random.nextInt(POSTCODES.length)]);
+            room.setPricePerMonth(400 + random.nextInt(90_000) / 100.0);
+            room.setAvailabilityDate(LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365)).toString());
+            catalogue.add(room);
+        }
+        index = new RoomIndex(catalogue);
+    }
+
+    @Benchmark
+    public List<Room> nearAndCheap() {
+        return index.query(nearAndCheap);
+    }
+
+    @Benchmark
+    public List<Room> cityByDate() {
+        return index.query(cityByDate);
+    }
+
+    @Benchmark
+    public List<Room> priceBand() {
+        return index.query(priceBand);
+    }
+}
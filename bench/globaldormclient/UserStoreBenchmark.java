@@ -0,0 +1,94 @@
+package globaldormclient;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading, saving and login lookups against users files of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserStoreBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int users;
+
+    private final Gson gson = JsonAdapters.GSON;
+    private Path directory;
+    private Path usersFile;
+    private UserRepository repository;
+    private String[] usernames;
+
+    @Setup(Level.Trial)
+    public void writeUsersFile() throws IOException {
+        directory = Files.createTempDirectory("globaldorm-bench");
+        usersFile = directory.resolve("users.json");
+        List<User> generated = new ArrayList<>(users);
+        usernames = new String[users];
+        for (int i = 0; i < users; i++) {
+            usernames[i] = "student" + i;
+            generated.add(new User(usernames[i], PasswordHasher.hash("password" + i), i % 100 == 0));
+        }
+        try (Writer writer = Files.newBufferedWriter(usersFile, StandardCharsets.UTF_8)) {
+            gson.toJson(generated, writer);
+        }
+        repository = new UserRepository(usersFile.toString(), gson);
+        repository.size(); // Loads the index
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        repository.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    // A repository that hasn't read the users file yet, so only the load is measured
+    @State(Scope.Thread)
+    public static class Unloaded {
+        UserRepository repository;
+
+        @Setup(Level.Invocation)
+        public void open(UserStoreBenchmark bench) {
+            repository = new UserRepository(bench.usersFile.toString(), bench.gson);
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() {
+            repository.close();
+        }
+    }
+
+    @Benchmark
+    public int loadUsers(Unloaded unloaded) {
+        return unloaded.repository.size();
+    }
+
+    @Benchmark
+    public void saveUsers() {
+        repository.compact();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public User loginLookup() {
+        return repository.find(usernames[ThreadLocalRandom.current().nextInt(users)]);
+    }
+}
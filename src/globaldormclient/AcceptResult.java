@@ -0,0 +1,41 @@
+package globaldormclient;
+
+public class AcceptResult {
+    private final long applicationId;
+    private final int statusCode; // -1 when the request never got a response
+    private final String body;
+    private final String error;
+    private final int attempts;
+
+    public AcceptResult(long applicationId, int statusCode, String body, String error, int attempts) {
+        this.applicationId = applicationId;
+        this.statusCode = statusCode;
+        this.body = body;
+        this.error = error;
+        this.attempts = attempts;
+    }
+
+    public long getApplicationId() {
+        return applicationId;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public boolean isAccepted() {
+        return statusCode == 200;
+    }
+}
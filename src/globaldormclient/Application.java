@@ -0,0 +1,71 @@
+package globaldormclient;
+
+import java.util.Objects;
+
+public class Application {
+    private long applicationId;
+    private long roomId;
+    private String userId;
+    private String status;
+
+    public Application() {
+    }
+
+    public Application(long applicationId, long roomId, String userId, String status) {
+        this.applicationId = applicationId;
+        this.roomId = roomId;
+        this.userId = userId;
+        this.status = status;
+    }
+
+    public long getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(long applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(long roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Application application)) {
+            return false;
+        }
+        return applicationId == application.applicationId
+                && roomId == application.roomId
+                && Objects.equals(userId, application.userId)
+                && Objects.equals(status, application.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(applicationId, roomId, userId, status);
+    }
+}
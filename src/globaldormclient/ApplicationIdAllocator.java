@@ -0,0 +1,50 @@
+package globaldormclient;
+
+import java.security.SecureRandom;
+
+/**
+ * Allocates application IDs on the client.
+ * An ID packs the seconds since 2024-01-01 (31 bits), a random instance
+ * number drawn once per process (10 bits) and a per-second sequence
+ * (12 bits), so it stays within the 53 bits a JSON number holds exactly.
+ * IDs from one process never repeat; two processes only collide if they drew
+ * the same instance number and allocate in the same second, which the
+ * server reports as a 409 and MultiApplier retries with a fresh ID.
+ */
+public class ApplicationIdAllocator {
+    private static final long EPOCH_SECONDS = 1_704_067_200L; // 2024-01-01T00:00:00Z
+    private static final int INSTANCE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+
+    private final long instance;
+    private long lastSecond = -1;
+    private int sequence;
+
+    public ApplicationIdAllocator() {
+        this(new SecureRandom().nextInt(1 << INSTANCE_BITS));
+    }
+
+    public ApplicationIdAllocator(int instance) {
+        if (instance < 0 || instance >= (1 << INSTANCE_BITS)) {
+            throw new IllegalArgumentException("Instance must be between 0 and " + ((1 << INSTANCE_BITS) - 1));
+        }
+        this.instance = instance;
+    }
+
+    public synchronized long next() {
+        long second = Math.max(System.currentTimeMillis() / 1000 - EPOCH_SECONDS, lastSecond); // Never step back with the clock
+        if (second == lastSecond) {
+            if (sequence == MAX_SEQUENCE) {
+                second++; // This second is used up, borrow from the next one
+                sequence = 0;
+            } else {
+                sequence++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastSecond = second;
+        return (second << (INSTANCE_BITS + SEQUENCE_BITS)) | (instance << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,53 @@
+package globaldormclient;
+
+public class ApplyResult {
+    private final long roomId;
+    private final long applicationId;
+    private final int statusCode; // -1 when the request never got a response
+    private final String body;
+    private final String error;
+    private final int attempts;
+    private final boolean alreadyApplied; // An earlier attempt went through even though its response was lost
+
+    public ApplyResult(long roomId, long applicationId, int statusCode, String body, String error, int attempts, boolean alreadyApplied) {
+        this.roomId = roomId;
+        this.applicationId = applicationId;
+        this.statusCode = statusCode;
+        this.body = body;
+        this.error = error;
+        this.attempts = attempts;
+        this.alreadyApplied = alreadyApplied;
+    }
+
+    public long getRoomId() {
+        return roomId;
+    }
+
+    public long getApplicationId() {
+        return applicationId;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public boolean isAlreadyApplied() {
+        return alreadyApplied;
+    }
+
+    public boolean isApplied() {
+        return statusCode == 200 || alreadyApplied;
+    }
+}
@@ -0,0 +1,41 @@
+package globaldormclient;
+
+/**
+ * Checks credentials against the user store and opens sessions.
+ */
+public class Authenticator {
+    private final UserRepository userRepository;
+
+    public Authenticator(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Returns a new session, or null if the username or password is wrong
+    public Session login(String username, String password) {
+        User user = userRepository.find(username);
+        // Hashes exactly once per attempt, even for unknown users, so timing doesn't reveal which usernames exist
+        boolean matches = PasswordHasher.verify(password, user != null ? user.getPassword() : null);
+        if (user != null && matches) {
+            return new Session(username, user.isAdmin());
+        }
+        return null;
+    }
+
+    // Checks many username/password pairs at once, e.g. for scripted logins; null entries failed
+    public Session[] loginAll(String[] usernames, String[] passwords) {
+        String[] storedHashes = new String[usernames.length];
+        User[] users = new User[usernames.length];
+        for (int i = 0; i < usernames.length; i++) {
+            users[i] = userRepository.find(usernames[i]);
+            storedHashes[i] = users[i] != null ? users[i].getPassword() : null;
+        }
+        boolean[] matches = PasswordHasher.verifyAll(passwords, storedHashes);
+        Session[] sessions = new Session[usernames.length];
+        for (int i = 0; i < usernames.length; i++) {
+            if (matches[i]) {
+                sessions[i] = new Session(usernames[i], users[i].isAdmin());
+            }
+        }
+        return sessions;
+    }
+}
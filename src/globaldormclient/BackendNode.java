@@ -0,0 +1,91 @@
+package globaldormclient;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One GlobalDorm backend in the node pool, identified by its origin
+ * (scheme, host and port). Tracks the requests in flight to it, an
+ * exponentially weighted moving average of its latency, and whether it is
+ * currently considered healthy.
+ */
+public class BackendNode {
+    private static final double EWMA_WEIGHT = 0.2; // Share of each new sample in the average
+    private static final int MARK_DOWN_FAILURES = 3;
+    private static final long FAILURE_PENALTY_MICROS = 1_000_000; // A refused connection is quick but must not look fast
+
+    private final String origin;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private double ewmaMicros = 0; // 0 until the first sample
+    private int consecutiveFailures = 0;
+    private volatile boolean healthy = true;
+
+    public BackendNode(String origin) {
+        URI uri = URI.create(origin);
+        this.origin = uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    // Same path and query, sent to this node instead
+    public URI resolve(URI uri) {
+        String query = uri.getRawQuery();
+        return URI.create(origin + uri.getRawPath() + (query == null ? "" : "?" + query));
+    }
+
+    public void begin() {
+        outstanding.incrementAndGet();
+        requests.incrementAndGet();
+    }
+
+    // Called once per request when its response has been read, or it failed
+    public synchronized void end(long micros, boolean failed) {
+        outstanding.decrementAndGet();
+        sample(failed ? Math.max(micros, FAILURE_PENALTY_MICROS) : micros);
+        if (!failed) {
+            consecutiveFailures = 0;
+        } else if (++consecutiveFailures >= MARK_DOWN_FAILURES) {
+            healthy = false; // Stays out of rotation until a health check passes
+        }
+    }
+
+    // Adds a latency sample, also fed by health checks so a node that gets no traffic isn't judged on old numbers
+    public synchronized void sample(long micros) {
+        ewmaMicros = ewmaMicros == 0 ? micros : ewmaMicros + EWMA_WEIGHT * (micros - ewmaMicros);
+    }
+
+    // Expected wait for one more request: latency average scaled by the queue in front of it
+    public synchronized double score() {
+        if (ewmaMicros == 0) {
+            return outstanding.get() == 0 ? 0 : Double.MAX_VALUE; // One probe request until the first sample is in
+        }
+        return ewmaMicros * (outstanding.get() + 1);
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public synchronized double getEwmaMillis() {
+        return ewmaMicros / 1000.0;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public synchronized void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+        if (healthy) {
+            consecutiveFailures = 0;
+        }
+    }
+}
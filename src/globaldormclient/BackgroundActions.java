@@ -0,0 +1,60 @@
+package globaldormclient;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Menu actions that run while the user keeps navigating.
+ * Each action returns the text it would have printed; finished results are
+ * queued and shown above the next menu rather than in the middle of a prompt.
+ */
+public class BackgroundActions implements Closeable {
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "background-action");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Queue<String> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    public void submit(String label, Callable<String> action) {
+        running.incrementAndGet();
+        executor.execute(() -> {
+            String result;
+            try {
+                result = action.call();
+            } catch (Exception e) {
+                result = "Error: " + label + " failed: " + e.getMessage();
+            }
+            finished.add(result);
+            running.decrementAndGet();
+        });
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    // Prints every result that arrived since the last call
+    public void printFinished(PrintStream out) {
+        String result;
+        while ((result = finished.poll()) != null) {
+            out.println(result);
+        }
+        int stillRunning = running.get();
+        if (stillRunning > 0) {
+            out.println("(" + stillRunning + " action(s) still running)");
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown(); // Submitted requests still finish, their results just aren't shown
+    }
+}
@@ -0,0 +1,207 @@
+package globaldormclient;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.*;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-interactive mode: runs JSON-lines commands and writes one JSON result
+ * per input line, in input order.
+ *
+ * Commands for the same "user" run one after another so a login always
+ * completes before that user's other commands; different users run in
+ * parallel. Supported ops: login, apply, cancel, history, weather,
+ * distance, accept, and query, a local room search that needs no login
+ * (see RoomQuery). For example:
+ *   {"op":"login","user":"david","password":"1"}
+ *   {"op":"apply","user":"david","applicationId":7,"roomId":3}
+ *   {"op":"query","query":"price < 600 and city = Nottingham sort price limit 5"}
+ */
+public class BatchRunner {
+    private final DormApi dormApi;
+    private final Authenticator authenticator;
+    private final WeatherCache weatherCache;
+    private final ProximityService proximityService;
+    private final RoomCache roomCache;
+    private final int parallelism;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public BatchRunner(DormApi dormApi, Authenticator authenticator, WeatherCache weatherCache,
+            ProximityService proximityService, RoomCache roomCache, int parallelism) {
+        this.dormApi = dormApi;
+        this.authenticator = authenticator;
+        this.weatherCache = weatherCache;
+        this.proximityService = proximityService;
+        this.roomCache = roomCache;
+        this.parallelism = parallelism;
+    }
+
+    // Returns the number of commands that failed
+    public int run(Reader input, Writer output) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Map<String, CompletableFuture<JsonObject>> userTails = new ConcurrentHashMap<>(); // Only users with a command still running
+        Deque<CompletableFuture<JsonObject>> window = new ArrayDeque<>();
+        int maxInFlight = parallelism * 4; // Bounds memory however long the input is
+        int failures = 0;
+
+        try (BufferedReader reader = new BufferedReader(input)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                int number = lineNumber;
+                JsonObject command;
+                try {
+                    command = JsonParser.parseString(line).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    JsonObject invalid = new JsonObject();
+                    invalid.addProperty("line", number);
+                    fail(invalid, "Invalid command: " + e.getMessage());
+                    window.addLast(CompletableFuture.completedFuture(invalid));
+                    continue;
+                }
+                String user = command.has("user") && command.get("user").isJsonPrimitive() ? command.get("user").getAsString() : null;
+
+                // Chain behind the previous command for the same user, if any
+                CompletableFuture<JsonObject> previous = user == null ? null : userTails.get(user);
+                CompletableFuture<JsonObject> result = previous == null
+                        ? CompletableFuture.supplyAsync(() -> execute(number, command), executor)
+                        : previous.handleAsync((ignored, error) -> execute(number, command), executor);
+                if (user != null) {
+                    userTails.put(user, result);
+                    result.whenComplete((ignored, error) -> userTails.remove(user, result)); // Unless a later command took its place
+                }
+                window.addLast(result);
+
+                while (window.size() >= maxInFlight || (!window.isEmpty() && window.peekFirst().isDone())) {
+                    failures += write(window.removeFirst().join(), output);
+                }
+            }
+            while (!window.isEmpty()) {
+                failures += write(window.removeFirst().join(), output);
+            }
+        } finally {
+            executor.shutdown();
+            output.flush();
+        }
+        return failures;
+    }
+
+    private JsonObject execute(int lineNumber, JsonObject command) {
+        JsonObject result = new JsonObject();
+        result.addProperty("line", lineNumber);
+        long start = System.nanoTime();
+        try {
+            String op = command.has("op") ? command.get("op").getAsString() : "";
+            result.addProperty("op", op);
+            dispatch(op, command, result);
+        } catch (IOException | RuntimeException e) { // Includes missing or mistyped command fields
+            result.addProperty("ok", false);
+            result.addProperty("error", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        result.addProperty("millis", (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private void dispatch(String op, JsonObject command, JsonObject result) throws IOException {
+        if (op.equals("login")) {
+            String username = command.get("user").getAsString();
+            sessions.remove(username); // A failed login mustn't leave the earlier session to run later commands
+            Session session = authenticator.login(username, command.get("password").getAsString());
+            if (session != null) {
+                sessions.put(username, session);
+            }
+            result.addProperty("ok", session != null);
+            if (session == null) {
+                result.addProperty("error", "Invalid username or password.");
+            }
+            return;
+        }
+        if (op.equals("query")) {
+            RoomQuery query = RoomQuery.parse(command.get("query").getAsString());
+            List<Room> rooms = roomCache.getIndex().query(query);
+            result.addProperty("ok", true);
+            result.addProperty("count", rooms.size());
+            result.add("rooms", JsonAdapters.GSON.toJsonTree(rooms));
+            return;
+        }
+
+        Session session = command.has("user") ? sessions.get(command.get("user").getAsString()) : null;
+        if (session == null) {
+            fail(result, "Not logged in.");
+            return;
+        }
+
+        switch (op) {
+            case "apply" -> respond(result, dormApi.apply(session, command.get("applicationId").getAsLong(),
+                    command.get("roomId").getAsLong()));
+            case "cancel" -> respond(result, dormApi.cancel(command.get("applicationId").getAsLong()));
+            case "history" -> respond(result, dormApi.history(session));
+            case "accept" -> {
+                if (!session.isAdmin()) {
+                    fail(result, "Only admin users can accept room offers.");
+                    return;
+                }
+                respond(result, dormApi.accept(command.get("applicationId").getAsLong()));
+            }
+            case "weather" -> {
+                Weather weather = command.has("roomId")
+                        ? weatherCache.getByRoom(command.get("roomId").getAsLong())
+                        : weatherCache.getByPostcode(command.get("postcode").getAsString());
+                result.addProperty("ok", weather != null);
+                if (weather != null) {
+                    result.addProperty("timepoint", weather.getTimepoint());
+                    result.addProperty("temperature", weather.getTemperature());
+                    result.addProperty("cloudcover", weather.getCloudcover());
+                }
+            }
+            case "distance" -> {
+                boolean exact = command.has("exact") && command.get("exact").getAsBoolean();
+                double meters = proximityService.distanceTo(command.get("postcode").getAsString(),
+                        command.get("roomId").getAsLong(), exact);
+                result.addProperty("ok", meters >= 0);
+                result.addProperty("distanceMeters", meters);
+            }
+            default -> fail(result, "Unknown op: " + op);
+        }
+    }
+
+    private static void respond(JsonObject result, HttpResponse<String> response) {
+        result.addProperty("ok", response.statusCode() == 200);
+        result.addProperty("status", response.statusCode());
+        result.addProperty("body", response.body());
+    }
+
+    private static void fail(JsonObject result, String error) {
+        result.addProperty("ok", false);
+        result.addProperty("error", error);
+    }
+
+    private static int write(JsonObject result, Writer output) throws IOException {
+        output.write(result.toString());
+        output.write('\n');
+        return result.has("ok") && result.get("ok").getAsBoolean() ? 0 : 1;
+    }
+
+    public static Reader open(String source) throws IOException {
+        if (source.equals("-")) {
+            return new InputStreamReader(System.in, StandardCharsets.UTF_8);
+        }
+        return new InputStreamReader(new FileInputStream(source), StandardCharsets.UTF_8);
+    }
+}
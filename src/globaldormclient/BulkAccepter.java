@@ -0,0 +1,143 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Accepts many pending applications in one go.
+ * The PUTs are sent asynchronously with a bound on how many are in flight,
+ * each finished item is reported as soon as it completes, and failures that
+ * may be transient (no response, 429 or 5xx) can be retried with a growing
+ * delay. Accepting is idempotent, so a retry after a lost response is safe.
+ */
+public class BulkAccepter {
+    private static final long RETRY_DELAY_MS = 250;
+
+    private final DormApi dormApi;
+    private final int maxConcurrent;
+
+    public BulkAccepter(DormApi dormApi, int maxConcurrent) {
+        this.dormApi = dormApi;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    // Picks IDs for a selection: "all", "room=<id>", "user=<name>", or IDs and ranges such as "3, 7, 10-20"
+    public static List<Long> select(List<Application> pending, String selection) {
+        String spec = selection.trim();
+        Set<Long> selected = new LinkedHashSet<>();
+        if (spec.equalsIgnoreCase("all")) {
+            for (Application application : pending) {
+                selected.add(application.getApplicationId());
+            }
+        } else if (spec.startsWith("room=")) {
+            long roomId = parseId(spec.substring("room=".length()));
+            for (Application application : pending) {
+                if (application.getRoomId() == roomId) {
+                    selected.add(application.getApplicationId());
+                }
+            }
+        } else if (spec.startsWith("user=")) {
+            String userId = spec.substring("user=".length()).trim();
+            for (Application application : pending) {
+                if (userId.equals(application.getUserId())) {
+                    selected.add(application.getApplicationId());
+                }
+            }
+        } else {
+            for (String part : spec.split(",")) {
+                part = part.trim();
+                if (part.isEmpty()) {
+                    continue;
+                }
+                int dash = part.indexOf('-');
+                if (dash < 0) {
+                    selected.add(parseId(part)); // Listed explicitly, so sent even if the pending list is stale
+                    continue;
+                }
+                long from = parseId(part.substring(0, dash));
+                long to = parseId(part.substring(dash + 1));
+                // Ranges only cover applications that are actually pending
+                for (Application application : pending) {
+                    long id = application.getApplicationId();
+                    if (id >= from && id <= to) {
+                        selected.add(id);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(selected);
+    }
+
+    // Accepts every ID, reporting each result to progress as it finishes; results come back in the order given
+    public List<AcceptResult> acceptAll(List<Long> applicationIds, int retries, Consumer<AcceptResult> progress) throws IOException {
+        List<CompletableFuture<AcceptResult>> accepts = new ArrayList<>(applicationIds.size());
+        Semaphore permits = new Semaphore(maxConcurrent);
+
+        try {
+            for (long applicationId : applicationIds) {
+                permits.acquire();
+                accepts.add(accept(applicationId, 1, retries)
+                        .whenComplete((result, error) -> {
+                            permits.release();
+                            progress.accept(result);
+                        }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bulk accept interrupted", e);
+        }
+
+        List<AcceptResult> results = new ArrayList<>(accepts.size());
+        for (CompletableFuture<AcceptResult> accept : accepts) {
+            results.add(accept.join());
+        }
+        return results;
+    }
+
+    private CompletableFuture<AcceptResult> accept(long applicationId, int attempt, int retriesLeft) {
+        return dormApi.acceptAsync(applicationId)
+                .handle((response, error) -> error == null
+                        ? new AcceptResult(applicationId, response.statusCode(), response.body(), null, attempt)
+                        : new AcceptResult(applicationId, -1, null, describe(error), attempt))
+                .thenCompose(result -> {
+                    if (retriesLeft <= 0 || !isRetryable(result)) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    Executor delayed = CompletableFuture.delayedExecutor(RETRY_DELAY_MS * attempt, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.runAsync(() -> { }, delayed)
+                            .thenCompose(ignored -> accept(applicationId, attempt + 1, retriesLeft - 1));
+                });
+    }
+
+    // 404 and other client errors won't change on a retry
+    private static boolean isRetryable(AcceptResult result) {
+        int status = result.getStatusCode();
+        return status == -1 || status == 429 || status >= 500;
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private static long parseId(String value) {
+        try {
+            long id = Long.parseLong(value.trim());
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Application IDs must be positive numbers: " + value.trim());
+    }
+}
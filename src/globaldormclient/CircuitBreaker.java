@@ -0,0 +1,52 @@
+package globaldormclient;
+
+/**
+ * Consecutive-failure circuit breaker for one endpoint.
+ * After enough failures in a row calls fail fast until the open period has
+ * passed; then a single trial call is let through, which either closes the
+ * breaker again or re-opens it for another period.
+ */
+public class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openMillis;
+    private int consecutiveFailures = 0;
+    private long openedAt = -1; // -1 while closed
+    private boolean trialInFlight = false;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public synchronized boolean allowRequest() {
+        if (openedAt < 0) {
+            return true;
+        }
+        if (trialInFlight || System.currentTimeMillis() - openedAt < openMillis) {
+            return false;
+        }
+        trialInFlight = true; // Half-open, this call decides
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        openedAt = -1;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (trialInFlight || consecutiveFailures >= failureThreshold) {
+            openedAt = System.currentTimeMillis();
+        }
+        trialInFlight = false;
+    }
+
+    public synchronized String getState() {
+        if (openedAt < 0) {
+            return "closed";
+        }
+        return trialInFlight || System.currentTimeMillis() - openedAt >= openMillis ? "half-open" : "open";
+    }
+}
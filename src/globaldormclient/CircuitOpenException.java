@@ -0,0 +1,11 @@
+package globaldormclient;
+
+import java.io.IOException;
+
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String endpoint) {
+        super("Backend unavailable for " + endpoint + ", not retrying for now.");
+    }
+}
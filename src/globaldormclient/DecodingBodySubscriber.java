@@ -0,0 +1,242 @@
+package globaldormclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Inflates a gzip or deflate response body chunk by chunk on its way to the
+ * caller's subscriber, so a compressed body is never buffered whole before
+ * the JSON parser sees it. A gzip body is checked against the CRC-32 and
+ * length in its trailer once the last byte has arrived.
+ */
+public class DecodingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+    private static final int CHUNK = 8192;
+    private static final int GZIP_FHCRC = 2;
+    private static final int GZIP_FEXTRA = 4;
+    private static final int GZIP_FNAME = 8;
+    private static final int GZIP_FCOMMENT = 16;
+
+    private final HttpResponse.BodySubscriber<T> delegate;
+    private final boolean gzip;
+    private final ByteArrayOutputStream header = new ByteArrayOutputStream(); // Start of the body until the format is known
+    private final ByteArrayOutputStream trailer = new ByteArrayOutputStream(); // Gzip bytes after the deflate stream
+    private final CRC32 crc = new CRC32();
+    private Inflater inflater;
+    private Flow.Subscription subscription;
+    private long encodedBytes;
+    private long decodedBytes;
+    private boolean failed;
+
+    public DecodingBodySubscriber(HttpResponse.BodySubscriber<T> delegate, String encoding) {
+        this.delegate = delegate;
+        this.gzip = encoding.equals("gzip") || encoding.equals("x-gzip");
+    }
+
+    // True for the Content-Encoding values this subscriber can undo
+    public static boolean supports(String encoding) {
+        return encoding.equals("gzip") || encoding.equals("x-gzip") || encoding.equals("deflate");
+    }
+
+    public long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return delegate.getBody();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        delegate.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        if (failed) {
+            return;
+        }
+        List<ByteBuffer> decoded = new ArrayList<>();
+        try {
+            for (ByteBuffer buffer : buffers) {
+                encodedBytes += buffer.remaining();
+                if (inflater == null) {
+                    buffer = startInflater(buffer);
+                    if (buffer == null) {
+                        continue; // Still reading the gzip header
+                    }
+                }
+                inflate(buffer, decoded);
+            }
+        } catch (IOException | DataFormatException e) {
+            failed = true;
+            subscription.cancel();
+            delegate.onError(e instanceof IOException ? e : new IOException("Corrupt compressed response body", e));
+            return;
+        }
+        if (decoded.isEmpty()) {
+            // The JDK's subscribers expect data in every item, so ask upstream for the one the caller is still owed
+            subscription.request(1);
+            return;
+        }
+        delegate.onNext(decoded);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        end();
+        if (!failed) {
+            delegate.onError(error);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (failed) {
+            return;
+        }
+        boolean truncated = encodedBytes > 0 && (inflater == null || !inflater.finished()
+                || gzip && trailer.size() < 8);
+        end();
+        if (truncated) {
+            delegate.onError(new IOException("Compressed response body ended early"));
+        } else if (gzip && encodedBytes > 0 && !trailerMatches()) {
+            delegate.onError(new IOException("Compressed response body failed its gzip checksum"));
+        } else {
+            delegate.onComplete();
+        }
+    }
+
+    // The gzip trailer holds the CRC-32 and the length mod 2^32 of the decoded body, both little-endian
+    private boolean trailerMatches() {
+        byte[] bytes = trailer.toByteArray();
+        return readUInt32(bytes, 0) == crc.getValue() && readUInt32(bytes, 4) == (decodedBytes & 0xffffffffL);
+    }
+
+    private static long readUInt32(byte[] data, int offset) {
+        return (data[offset] & 0xffL) | (data[offset + 1] & 0xffL) << 8
+                | (data[offset + 2] & 0xffL) << 16 | (data[offset + 3] & 0xffL) << 24;
+    }
+
+    // Buffers the body until the gzip header is complete, then returns whatever follows it
+    private ByteBuffer startInflater(ByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        header.write(bytes);
+        byte[] start = header.toByteArray();
+
+        int bodyStart;
+        if (gzip) {
+            bodyStart = gzipHeaderLength(start);
+            if (bodyStart < 0) {
+                return null;
+            }
+            inflater = new Inflater(true);
+        } else {
+            if (start.length < 2) {
+                return null;
+            }
+            // "deflate" should be zlib-wrapped, but some servers send raw deflate
+            boolean zlib = (start[0] & 0x0f) == 8 && ((start[0] & 0xff) * 256 + (start[1] & 0xff)) % 31 == 0;
+            inflater = new Inflater(!zlib);
+            bodyStart = 0;
+        }
+        header.reset();
+        return ByteBuffer.wrap(start, bodyStart, start.length - bodyStart);
+    }
+
+    private void inflate(ByteBuffer input, List<ByteBuffer> decoded) throws DataFormatException {
+        if (inflater.finished()) {
+            keepTrailer(input); // Only the gzip trailer is left
+            return;
+        }
+        inflater.setInput(input);
+        while (!inflater.finished()) {
+            byte[] out = new byte[CHUNK];
+            int count = inflater.inflate(out);
+            if (count == 0) {
+                if (inflater.needsDictionary()) {
+                    throw new DataFormatException("Preset dictionaries are not supported");
+                }
+                if (inflater.needsInput()) {
+                    break;
+                }
+                continue;
+            }
+            decodedBytes += count;
+            if (gzip) {
+                crc.update(out, 0, count);
+            }
+            decoded.add(ByteBuffer.wrap(out, 0, count));
+        }
+        if (inflater.finished()) {
+            keepTrailer(input); // The inflater leaves the buffer just past the deflate stream
+        }
+    }
+
+    private void keepTrailer(ByteBuffer input) {
+        if (!gzip) {
+            return;
+        }
+        while (input.hasRemaining() && trailer.size() < 8) {
+            trailer.write(input.get());
+        }
+    }
+
+    // Length of the gzip member header, or -1 if more bytes are needed
+    private static int gzipHeaderLength(byte[] data) throws IOException {
+        if (data.length < 10) {
+            return -1;
+        }
+        if ((data[0] & 0xff) != 0x1f || (data[1] & 0xff) != 0x8b || data[2] != 8) {
+            throw new IOException("Response is not in gzip format");
+        }
+        int flags = data[3] & 0xff;
+        int position = 10;
+        if ((flags & GZIP_FEXTRA) != 0) {
+            if (data.length < position + 2) {
+                return -1;
+            }
+            position += 2 + ((data[position] & 0xff) | (data[position + 1] & 0xff) << 8);
+        }
+        if ((flags & GZIP_FNAME) != 0) {
+            position = skipZeroTerminated(data, position);
+        }
+        if ((flags & GZIP_FCOMMENT) != 0 && position >= 0) {
+            position = skipZeroTerminated(data, position);
+        }
+        if ((flags & GZIP_FHCRC) != 0 && position >= 0) {
+            position += 2;
+        }
+        return position < 0 || position > data.length ? -1 : position;
+    }
+
+    private static int skipZeroTerminated(byte[] data, int position) {
+        for (int i = position; i < data.length; i++) {
+            if (data[i] == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private void end() {
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package globaldormclient;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Typed calls for the GlobalDorm application endpoints.
+ * Shared by the interactive menus and batch mode so both send identical requests.
+ * Holds no login state of its own; callers pass the session they act for.
+ */
+public class DormApi {
+    private final HttpTransport transport;
+    private final SnapshotStore store; // Null when running without offline copies
+
+    public DormApi(HttpTransport transport) {
+        this(transport, null);
+    }
+
+    public DormApi(HttpTransport transport, SnapshotStore store) {
+        this.transport = transport;
+        this.store = store;
+    }
+
+    public HttpResponse<String> apply(Session session, long applicationId, long roomId) throws IOException {
+        return transport.post("/apply", applyPayload(session, applicationId, roomId));
+    }
+
+    // Apply carrying an idempotency key, so a server that has seen the key answers with the original result
+    public CompletableFuture<HttpResponse<String>> applyAsync(Session session, long applicationId, long roomId, String idempotencyKey) {
+        return transport.sendAsync(transport.request("/apply")
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofString(applyPayload(session, applicationId, roomId), StandardCharsets.UTF_8)));
+    }
+
+    public HttpResponse<String> cancel(long applicationId) throws IOException {
+        return transport.delete("/cancel/" + applicationId);
+    }
+
+    // Live history; a 200 replaces the user's offline copy and a 404 removes it
+    public HttpResponse<String> history(Session session) throws IOException {
+        HttpResponse<String> response = transport.get(historyPath(session));
+        if (store != null && response.statusCode() == 200) {
+            store.save(historyKey(session), new Snapshot(response.body().getBytes(StandardCharsets.UTF_8),
+                    null, null, null, System.currentTimeMillis()));
+        } else if (store != null && response.statusCode() == 404) {
+            store.delete(historyKey(session));
+        }
+        return response;
+    }
+
+    // Live history without touching the offline copy
+    public CompletableFuture<HttpResponse<String>> historyAsync(Session session) {
+        return transport.getAsync(historyPath(session));
+    }
+
+    // Last history fetched for this user, or null if there is none
+    public Snapshot savedHistory(Session session) {
+        return store == null ? null : store.load(historyKey(session));
+    }
+
+    public HttpResponse<String> pending() throws IOException {
+        return transport.get("/applications/pending");
+    }
+
+    public HttpResponse<String> accept(long applicationId) throws IOException {
+        return transport.put("/accept/" + applicationId);
+    }
+
+    public CompletableFuture<HttpResponse<String>> acceptAsync(long applicationId) {
+        return transport.sendAsync(transport.request("/accept/" + applicationId).PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private static String applyPayload(Session session, long applicationId, long roomId) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("applicationId", applicationId);
+        payload.addProperty("roomId", roomId);
+        payload.addProperty("userId", session.getUsername());
+        return payload.toString();
+    }
+
+    // URLEncoder is for form data; in a path segment a space must be %20, not +
+    private static String historyPath(Session session) {
+        return "/history/" + URLEncoder.encode(session.getUsername(), StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static String historyKey(Session session) {
+        return "history-" + session.getUsername();
+    }
+}
@@ -1,34 +1,72 @@
 package globaldormclient;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSyntaxException;
-import com.google.gson.reflect.TypeToken;
 
 import java.io.*;
-import java.lang.reflect.Type;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.security.MessageDigest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GlobalDormClient {
     private static final String BASE_URL = "http://localhost:8080/GlobalDorm/Dorm/rooms";
     private static final String USERS_FILE = "users.json";
-    private static final Gson gson = new Gson();
-    private static String loggedInUser = null;
-    private static boolean isAdmin = false;
+    private static final int ROOM_PAGE_SIZE = 20;
+    private static final String POSTCODES_FILE = System.getProperty("globaldorm.postcodeFile", "postcodes.csv");
+    private static final int PROXIMITY_CONCURRENCY = Integer.getInteger("globaldorm.proximityConcurrency", 8);
+    private static final int ACCEPT_CONCURRENCY = Integer.getInteger("globaldorm.acceptConcurrency", 8);
+    private static final int APPLY_CONCURRENCY = Integer.getInteger("globaldorm.applyConcurrency", 8);
+    private static final String SNAPSHOT_DIR = System.getProperty("globaldorm.snapshotDir", "snapshots");
+    private static final long ROOM_CACHE_TTL_SECONDS = Long.getLong("globaldorm.roomCacheTtl", 300);
+    private static final String METRICS_FILE = System.getProperty("globaldorm.metricsFile"); // JSON-lines, off when unset
+    private static final long METRICS_INTERVAL_SECONDS = Long.getLong("globaldorm.metricsInterval", 60);
+    private static final DateTimeFormatter SAVED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final Gson gson = JsonAdapters.GSON;
+    private static final Metrics metrics = new Metrics(true);
+    private static final HttpTransport transport = new HttpTransport(BASE_URL, metrics);
+    private static final SnapshotStore snapshotStore = new SnapshotStore(Path.of(SNAPSHOT_DIR));
+    private static final DormApi dormApi = new DormApi(transport, snapshotStore);
+    private static final UserRepository userRepository = new UserRepository(USERS_FILE, gson, metrics);
+    private static final Authenticator authenticator = new Authenticator(userRepository);
+    private static final WeatherCache weatherCache = new WeatherCache(transport);
+    private static final RoomCache roomCache = new RoomCache(transport, Duration.ofSeconds(ROOM_CACHE_TTL_SECONDS), snapshotStore);
+    private static final BulkAccepter bulkAccepter = new BulkAccepter(dormApi, ACCEPT_CONCURRENCY);
+    private static final MultiApplier multiApplier = new MultiApplier(dormApi, new ApplicationIdAllocator(), APPLY_CONCURRENCY);
+    private static final ProximityService proximityService = new ProximityService(transport, roomCache, PROXIMITY_CONCURRENCY, loadPostcodes());
 
     public static void main(String[] args) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            userRepository.close(); // Flush the users journal on exit
+            metrics.close();
+        }));
+        if (METRICS_FILE != null) {
+            metrics.startReporter(Path.of(METRICS_FILE), Duration.ofSeconds(METRICS_INTERVAL_SECONDS));
+        }
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (options.remove("--trace")) {
+            transport.setTrace(true);
+            args = options.toArray(new String[0]);
+        }
+        if (args.length > 0) {
+            runCommandLine(args);
+            return;
+        }
+        roomCache.loadSnapshot(); // Rooms from the last run show instantly while a fresh list loads
         Scanner scanner = new Scanner(System.in);
 
         while (true) { // Main loop to handle login and logout transitions
+            Session session = null;
             // Login loop
-            while (loggedInUser == null) {
+            while (session == null) {
                 System.out.println("\n=== Welcome to GlobalDorm Client ===");
                 System.out.println("1. Login");
                 System.out.println("2. Create New User");
@@ -39,7 +77,7 @@ public class GlobalDormClient {
                 scanner.nextLine(); // Consume newline
 
                 switch (choice) {
-                    case 1 -> login(scanner); // Attempt login
+                    case 1 -> session = login(scanner); // Attempt login
                     case 2 -> createNewUser(scanner); // Create a new user
                     case 3 -> {
                         System.out.println("Exiting...");
@@ -50,34 +88,145 @@ public class GlobalDormClient {
                 }
             }
             
-            if (isAdmin){
-                adminMenu(scanner);
+            if (session.isAdmin()){
+                adminMenu(scanner, session);
             }else{
-                roomManagementMenu(scanner);
+                roomManagementMenu(scanner, session);
             }
             // User is logged in, proceed to Room Management Menu unless an Admin
-            // After logout, loggedInUser will be null, and the program will return to the login loop            
+            // After logout the session is dropped, and the program will return to the login loop
+        }
+    }
+
+    // Non-interactive modes: --batch, --load-test, --stub-server, --import-users or --export-users
+    private static void runCommandLine(String[] args) {
+        try {
+            switch (args[0]) {
+                case "--batch" -> runBatch(args);
+                case "--load-test" -> LoadGenerator.run(args, BASE_URL, System.out);
+                case "--stub-server" -> runStubServer(args);
+                case "--import-users" -> runImportUsers(args);
+                case "--export-users" -> runExportUsers(args);
+                default -> {
+                    System.err.println("Usage: [--trace] --batch <file|-> [--parallelism N]");
+                    System.err.println("       --load-test [--stub] [--base-url URL] [--rate N | --concurrency N] [--duration S] [--mix op=w,...]");
+                    System.err.println("       --stub-server [--port N] [--rooms N] [--delay-ms N]");
+                    System.err.println("       --import-users <file|-> [--format csv|jsonl]");
+                    System.err.println("       --export-users <file|-> [--format csv|jsonl]");
+                    System.exit(2);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(2);
+        }
+    }
+
+    // e.g. --batch commands.jsonl --parallelism 16 (use - for stdin)
+    private static void runBatch(String[] args) throws IOException {
+        String batchSource = args.length > 1 ? args[1] : "-";
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--parallelism")) {
+                parallelism = Integer.parseInt(args[++i]);
+            }
+        }
+
+        BatchRunner runner = new BatchRunner(dormApi, authenticator, weatherCache, proximityService, roomCache, parallelism);
+        try (Reader input = BatchRunner.open(batchSource)) {
+            Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            int failures = runner.run(input, output);
+            System.exit(failures == 0 ? 0 : 1);
+        }
+    }
+
+    // Runs the bundled stub backend until the process is killed
+    private static void runStubServer(String[] args) throws IOException {
+        int port = 8080;
+        int rooms = 500;
+        long delayMs = 0;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--rooms" -> rooms = Integer.parseInt(args[++i]);
+                case "--delay-ms" -> delayMs = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown stub-server option: " + args[i]);
+            }
         }
+        StubServer server = new StubServer(port, rooms, delayMs, delayMs / 2);
+        server.start();
+        System.out.println("Stub GlobalDorm server listening on " + server.getBaseUrl());
     }
 
-    private static void login(Scanner scanner) {
+    // e.g. --import-users cohort.csv; records need a username and a password (or passwordHash), isAdmin is optional
+    private static void runImportUsers(String[] args) throws IOException {
+        String source = args.length > 1 ? args[1] : "-";
+        UserTransfer.Format format = transferFormat(args, source);
+
+        long start = System.nanoTime();
+        UserImportResult result;
+        try (Reader input = BatchRunner.open(source)) {
+            result = new UserTransfer(userRepository).importUsers(input, format);
+        }
+        userRepository.compact(); // One fresh users file instead of a journal the size of the import
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Imported " + result.getImported() + " user(s) in " + millis + " ms; "
+                + result.getExisting() + " already existed, " + result.getInvalid() + " invalid.");
+        for (String error : result.getErrors()) {
+            System.out.println("  " + error);
+        }
+        if (result.getFailure() != null) {
+            System.out.println("Import stopped, the users journal could not be written: " + result.getFailure().getMessage());
+            System.out.println("Only the " + result.getImported() + " user(s) counted above were saved.");
+        }
+        System.exit(result.getInvalid() == 0 && result.getFailure() == null ? 0 : 1);
+    }
+
+    // e.g. --export-users users.csv (use - for stdout); passwords are written as their stored hashes
+    private static void runExportUsers(String[] args) throws IOException {
+        String target = args.length > 1 ? args[1] : "-";
+        UserTransfer.Format format = transferFormat(args, target);
+        UserTransfer transfer = new UserTransfer(userRepository);
+        if (target.equals("-")) {
+            transfer.exportUsers(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)), format);
+        } else {
+            try (Writer output = Files.newBufferedWriter(Path.of(target), StandardCharsets.UTF_8)) {
+                int count = transfer.exportUsers(output, format);
+                System.out.println("Exported " + count + " user(s) to " + target);
+            }
+        }
+        System.exit(0);
+    }
+
+    // --format if given, otherwise from the file extension
+    private static UserTransfer.Format transferFormat(String[] args, String path) {
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--format")) {
+                return UserTransfer.Format.of(args[++i]);
+            }
+        }
+        return UserTransfer.Format.forFile(path);
+    }
+
+    private static Session login(Scanner scanner) {
         System.out.print("Enter username: ");
         String username = scanner.nextLine();
 
         System.out.print("Enter password: ");
         String password = scanner.nextLine();
 
-        List<User> users = loadUsers();
-        for (User user : users) {
-            if (user.getUsername().equals(username) && user.getPassword().equals(hashPassword(password))) {
-                loggedInUser = username;
-                isAdmin = user.isAdmin(); // Set admin flag
-                System.out.println("Login successful! Welcome, " + loggedInUser);
-                return;
-            }
+        Session session = authenticator.login(username, password);
+        if (session != null) {
+            System.out.println("Login successful! Welcome, " + session.getUsername());
+            return session;
         }
         
         System.out.println("Invalid username or password. Please try again.");
+        return null;
     }
 
     private static void createNewUser(Scanner scanner) {
@@ -89,21 +238,22 @@ public class GlobalDormClient {
             String password = scanner.nextLine();
 
             System.out.print("Is this an admin account? (yes/no): ");
-            isAdmin = scanner.nextLine().equalsIgnoreCase("yes");
+            boolean isAdmin = scanner.nextLine().equalsIgnoreCase("yes");
 
             // Validate username uniqueness
-            List<User> users = loadUsers();
-            if (users.stream().anyMatch(user -> user.getUsername().equals(username))) {
+            if (userRepository.exists(username)) {
                 System.out.println("Error: Username already exists.");
                 return;
             }
 
             // Hash the password
-            String hashedPassword = hashPassword(password);
+            String hashedPassword = PasswordHasher.hash(password);
 
-            // Add the new user to the list and save to file
-            users.add(new User(username, hashedPassword, isAdmin));
-            saveUsers(users);
+            // Add the new user to the store and save to file
+            if (!userRepository.add(new User(username, hashedPassword, isAdmin))) {
+                System.out.println("Error: Username already exists.");
+                return;
+            }
 
             System.out.println("User created successfully! Please log in.");
         } catch (Exception e) {
@@ -111,8 +261,17 @@ public class GlobalDormClient {
         }
     }
 
-    private static void roomManagementMenu(Scanner scanner) {
+    private static void roomManagementMenu(Scanner scanner, Session session) {
+        try (SessionPrefetch prefetch = new SessionPrefetch(dormApi, roomCache, session, null);
+             BackgroundActions background = new BackgroundActions()) {
+            prefetch.start(); // Rooms and history load while the menu is on screen
+            roomManagementMenu(scanner, session, prefetch, background);
+        }
+    }
+
+    private static void roomManagementMenu(Scanner scanner, Session session, SessionPrefetch prefetch, BackgroundActions background) {
         while (true) {
+            background.printFinished(System.out);
             System.out.println("\n=== Room Management Menu ===");
             System.out.println("1. View All Rooms");
             System.out.println("2. Apply for a Room");
@@ -120,22 +279,32 @@ public class GlobalDormClient {
             System.out.println("4. View Application History");
             System.out.println("5. Check Distance to a Room");
             System.out.println("6. Check Weather");
-            System.out.println("7. Logout");
+            System.out.println("7. Refresh Room List");
+            System.out.println("8. Rank Rooms by Distance");
+            System.out.println("9. Search Rooms");
+            System.out.println("10. Apply for Several Rooms");
+            System.out.println("11. Logout");
             System.out.print("Choose an option: ");
 
             int choice = scanner.nextInt();
             scanner.nextLine(); // Consume newline
 
             switch (choice) {
-                case 1 -> viewAllRooms();
-                case 2 -> applyForRoom(scanner);
-                case 3 -> cancelApplication(scanner);
-                case 4 -> viewApplicationHistory(scanner);
-                case 5 -> checkDistanceToRoom(scanner);
+                case 1 -> viewAllRooms(scanner);
+                case 2 -> applyForRoom(scanner, session, prefetch, background);
+                case 3 -> cancelApplication(scanner, session, prefetch, background);
+                case 4 -> viewApplicationHistory(session, prefetch);
+                case 5 -> checkDistanceToRoom(scanner, session);
                 case 6 -> checkWeather(scanner); // New menu option
                 case 7 -> {
+                    roomCache.invalidate();
+                    System.out.println("Room list will be refreshed on next view.");
+                }
+                case 8 -> rankRoomsByDistance(scanner);
+                case 9 -> searchRooms(scanner);
+                case 10 -> applyForRooms(scanner, session, prefetch);
+                case 11 -> {
                     System.out.println("Logged out successfully.");
-                    loggedInUser = null;
                     return; // Exit the menu and return to login
                 }
                 default -> System.out.println("Invalid option. Please try again.");
@@ -143,22 +312,30 @@ public class GlobalDormClient {
         }
     }
     
-    private static void adminMenu(Scanner scanner) {
+    private static void adminMenu(Scanner scanner, Session session) {
+        PendingFeed pendingFeed = new PendingFeed(transport, snapshotStore); // Synced incrementally from the saved view
+        try (SessionPrefetch prefetch = new SessionPrefetch(dormApi, roomCache, session, pendingFeed)) {
+            prefetch.start(); // The first pending sync runs while the menu is on screen
+            adminMenu(scanner, session, pendingFeed, prefetch);
+        }
+    }
+
+    private static void adminMenu(Scanner scanner, Session session, PendingFeed pendingFeed, SessionPrefetch prefetch) {
         while (true) {
             System.out.println("\n=== Admin Menu ===");
-            System.out.println("1. Accept Room Offer");
-            System.out.println("2. Logout");
+            System.out.println("1. Accept Room Offers");
+            System.out.println("2. View All Pending Applications");
+            System.out.println("3. Logout");
             System.out.print("Choose an option: ");
 
             int choice = scanner.nextInt();
             scanner.nextLine(); // Consume newline
 
             switch (choice) {
-                case 1 -> acceptRoomOffer(scanner);
-                case 2 -> {
+                case 1 -> acceptRoomOffer(scanner, session, pendingFeed, prefetch);
+                case 2 -> viewPendingApplications(pendingFeed, prefetch);
+                case 3 -> {
                     System.out.println("Logged out successfully.");
-                    loggedInUser = null;
-                    isAdmin = false;
                     return; // Exit the admin menu
                 }
                 default -> System.out.println("Invalid option. Please try again.");
@@ -166,77 +343,72 @@ public class GlobalDormClient {
         }
     }
 
-    private static List<User> loadUsers() {
-    File file = new File(USERS_FILE);
-    if (!file.exists()) {
-        try {
-            file.createNewFile(); // Create the file if it doesn't exist
-            try (Writer writer = new FileWriter(file)) {
-                writer.write("[]"); // Initialize with an empty JSON array
-            }
-            System.out.println("Created new users.json file.");
-        } catch (IOException e) {
-            System.out.println("Error creating users.json file.");
-            e.printStackTrace();
-        }
-    }
-
-    try (Reader reader = new FileReader(file)) {
-        Type listType = new TypeToken<List<User>>() {}.getType();
-        return gson.fromJson(reader, listType);
-    } catch (IOException e) {
-        e.printStackTrace();
-        return new ArrayList<>(); // Return an empty list if there's an error
-    }
-}
+    private static void viewAllRooms(Scanner scanner) {
+        try (RoomPager pager = new RoomPager(roomCache, ROOM_PAGE_SIZE)) {
+            System.out.println("\n=== All Rooms ===");
+            int shown = 0;
+            while (pager.hasNextPage()) {
+                List<Room> page = pager.nextPage();
+                if (shown == 0 && roomCache.isStale()) {
+                    System.out.println("(Offline copy saved " + formatSavedAt(roomCache.getStaleSince()) + ", the server isn't answering yet.)");
+                }
+                for (Room room : page) {
+                    printRoom(room);
+                }
+                shown += page.size();
 
-    private static void saveUsers(List<User> users) {
-        try (Writer writer = new FileWriter(USERS_FILE)) {
-            gson.toJson(users, writer);
+                if (!pager.hasNextPage()) {
+                    break;
+                }
+                System.out.print("Showing " + shown + " rooms. Press Enter for more, or type q to return: ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                    return;
+                }
+            }
+            if (shown == 0) {
+                System.out.println("No rooms found.");
+            }
+        } catch (HttpStatusException e) {
+            System.out.println("Error: " + e.getMessage());
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private static String hashPassword(String password) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes("UTF-8"));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Error hashing password", e);
-        }
-    }
-
-    private static void viewAllRooms() {
+    // Filters, sorts and limits the cached catalogue locally, no server round trip once it's loaded
+    private static void searchRooms(Scanner scanner) {
+        System.out.println("\n=== Search Rooms ===");
+        System.out.println("e.g. price < 600 and near NG1 4BU and available >= 2025-09-01 sort price limit 10");
+        System.out.println("Conditions: price, available (< <= > >= =), city = <name>, district = <code>, near <postcode>");
+        System.out.println("near matches the postcode's district (e.g. NG1), not a distance.");
+        System.out.print("Query: ");
+        String text = scanner.nextLine();
         try {
-            URL url = new URL(BASE_URL);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-
-            if (connection.getResponseCode() == 200) {
-                BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                String line;
-                System.out.println("\n=== All Rooms ===");
-                while ((line = in.readLine()) != null) {
-                    System.out.println(line);
-                }
-                in.close();
-            } else {
-                System.out.println("Error: Unable to fetch rooms. HTTP Code: " + connection.getResponseCode());
+            RoomQuery query = RoomQuery.parse(text);
+            RoomIndex index = roomCache.getIndex();
+            long start = System.nanoTime();
+            List<Room> rooms = index.query(query);
+            long micros = (System.nanoTime() - start) / 1_000;
+            for (Room room : rooms) {
+                printRoom(room);
             }
+            System.out.println(rooms.size() + " of " + index.size() + " room(s) matched in " + micros + " µs.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (HttpStatusException e) {
+            System.out.println("Error: " + e.getMessage());
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private static void applyForRoom(Scanner scanner) {
+    private static void printRoom(Room room) {
+        System.out.printf("[%d] %s - %s, %s (%s) - £%.2f/month, available %s%n",
+                room.getId(), room.getName(), room.getCity(), room.getCounty(), room.getPostcode(),
+                room.getPricePerMonth(), room.getAvailabilityDate());
+    }
+
+    private static void applyForRoom(Scanner scanner, Session session, SessionPrefetch prefetch, BackgroundActions background) {
         try {
             System.out.print("Enter Application ID: ");
             long applicationId = scanner.nextLong();
@@ -258,185 +430,330 @@ public class GlobalDormClient {
 
             scanner.nextLine(); // Consume newline
 
-            // Use the logged-in user for userId
-            String userId = loggedInUser;
-
-            // Create JSON payload
-            String jsonInput = String.format(
-                "{\"applicationId\":%d,\"roomId\":%d,\"userId\":\"%s\"}",
-                applicationId, roomId, userId
-            );
-
-            // Make the POST request
-            URL url = new URL(BASE_URL + "/apply");
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setDoOutput(true);
-
-            // Send the JSON payload
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = jsonInput.getBytes("utf-8");
-                os.write(input, 0, input.length);
+            // Check the room exists in the cached catalogue before applying
+            Room room = roomCache.findRoom(roomId);
+            if (room == null) {
+                System.out.println("Error: Room not found.");
+                return;
             }
+            System.out.println("Applying for " + room.getName() + " (" + room.getCity() + "), the response will show above the menu.");
 
-            // Handle the server response
-            if (connection.getResponseCode() == 200) {
-                BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                String response;
-                System.out.println("\n=== Application Response ===");
-                while ((response = in.readLine()) != null) {
-                    System.out.println(response);
+            // Make the POST request in the background, using the logged-in user for userId
+            background.submit("Applying for room " + roomId, () -> {
+                HttpResponse<String> response = dormApi.apply(session, applicationId, roomId);
+                prefetch.refreshHistory();
+
+                // Handle the server response
+                if (response.statusCode() == 200) {
+                    return "\n=== Application Response ===\n" + response.body();
                 }
-                in.close();
-            } else {
-                System.out.println("Error: Unable to apply for room. HTTP Code: " + connection.getResponseCode());
-            }
+                return "Error: Unable to apply for room " + roomId + ". HTTP Code: " + response.statusCode();
+            });
         } catch (IOException e) {
             System.out.println("An error occurred while applying for the room:");
             e.printStackTrace();
         }
     }
 
-    private static void cancelApplication(Scanner scanner) {
-        
-        viewApplicationHistory(scanner);
-        // Prompt user for application ID to cancel
+    // Applies for a list of rooms, or every room a search returns, with IDs allocated by the client
+    private static void applyForRooms(Scanner scanner, Session session, SessionPrefetch prefetch) {
         try {
-            System.out.print("\nEnter Application ID to Cancel: ");
-            long applicationId = scanner.nextLong();
-
-            // Validate applicationId
-            if (applicationId <= 0) {
-                System.out.println("Error: Application ID must be a positive number.");
+            System.out.println("\nEnter Room IDs, e.g. 3, 7, 12-15, or a search such as: price < 600 and city = Leeds limit 5");
+            System.out.print("Rooms: ");
+            String selection = scanner.nextLine().trim();
+            List<Long> roomIds = new ArrayList<>();
+            if (!selection.isEmpty() && Character.isDigit(selection.charAt(0))) {
+                for (long roomId : MultiApplier.parseRoomIds(selection)) {
+                    if (roomCache.findRoom(roomId) == null) {
+                        System.out.println("Skipping room " + roomId + ": not found.");
+                    } else {
+                        roomIds.add(roomId);
+                    }
+                }
+            } else {
+                for (Room room : roomCache.getIndex().query(RoomQuery.parse(selection))) {
+                    roomIds.add(room.getId());
+                }
+            }
+            if (roomIds.isEmpty()) {
+                System.out.println("No rooms to apply for.");
                 return;
             }
 
-            // Make the DELETE request
-            URL url = new URL(BASE_URL + "/cancel/" + applicationId);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("DELETE");
+            System.out.print("Retries for each failed apply (0 for none): ");
+            int retries = scanner.nextInt();
+            scanner.nextLine(); // Consume newline
 
-            // Handle the server response
-            switch (connection.getResponseCode()) {
-                case 200 -> {
-                    try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                        String response;
-                        System.out.println("\n=== Cancel Response ===");
-                        while ((response = in.readLine()) != null) {
-                            System.out.println(response);
-                        }
+            System.out.println("\n=== Applying for " + roomIds.size() + " Room(s) ===");
+            AtomicInteger done = new AtomicInteger();
+            List<ApplyResult> results = multiApplier.applyAll(session, roomIds, Math.max(retries, 0), result ->
+                    System.out.printf("[%d/%d] %s%n", done.incrementAndGet(), roomIds.size(), describeApply(result)));
+            prefetch.refreshHistory();
+
+            int applied = 0;
+            for (ApplyResult result : results) {
+                if (result.isApplied()) {
+                    applied++;
+                }
+            }
+            System.out.println("Applied for " + applied + " of " + results.size() + " room(s).");
+            if (applied < results.size()) {
+                System.out.println("Failed:");
+                for (ApplyResult result : results) {
+                    if (!result.isApplied()) {
+                        System.out.println("  " + describeApply(result));
                     }
                 }
-
-                case 404 -> System.out.println("Error: Application not found.");
-                default -> System.out.println("Error: Unable to cancel application. HTTP Code: " + connection.getResponseCode());
             }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (HttpStatusException e) {
+            System.out.println("Error: " + e.getMessage());
         } catch (IOException e) {
-            System.out.println("An error occurred while cancelling the application:");
+            System.out.println("An error occurred while applying for rooms:");
             e.printStackTrace();
         }
     }
 
-    private static void viewApplicationHistory(Scanner scanner) {
+    private static String describeApply(ApplyResult result) {
+        String outcome;
+        if (result.isAlreadyApplied()) {
+            outcome = "already applied as application " + result.getApplicationId();
+        } else {
+            switch (result.getStatusCode()) {
+                case 200 -> outcome = "applied as application " + result.getApplicationId();
+                case 409 -> outcome = "failed, application ID " + result.getApplicationId() + " is taken";
+                case -1 -> outcome = "failed: " + result.getError();
+                default -> outcome = "failed, HTTP Code: " + result.getStatusCode();
+            }
+        }
+        String attempts = result.getAttempts() > 1 ? " (after " + result.getAttempts() + " attempts)" : "";
+        return "Room " + result.getRoomId() + " " + outcome + attempts;
+    }
+
+    private static void cancelApplication(Scanner scanner, Session session, SessionPrefetch prefetch, BackgroundActions background) {
+        // Show the history that's already loaded rather than waiting for a fresh one
+        System.out.println("\n=== Your Applications ===");
+        HttpResponse<String> history = prefetch.peekHistory();
+        if (history != null && history.statusCode() == 200) {
+            System.out.println(history.body());
+        } else if (!printSavedHistory(session)) {
+            System.out.println("(Your application history is still loading.)");
+        }
+
+        // Prompt user for application ID to cancel
+        System.out.print("\nEnter Application ID to Cancel: ");
+        long applicationId = scanner.nextLong();
+
+        // Validate applicationId
+        if (applicationId <= 0) {
+            System.out.println("Error: Application ID must be a positive number.");
+            return;
+        }
+
+        // Make the DELETE request in the background
+        System.out.println("Cancelling application " + applicationId + ", the response will show above the menu.");
+        background.submit("Cancelling application " + applicationId, () -> {
+            HttpResponse<String> response = dormApi.cancel(applicationId);
+            prefetch.refreshHistory();
+
+            // Handle the server response
+            return switch (response.statusCode()) {
+                case 200 -> "\n=== Cancel Response ===\n" + response.body();
+                case 404 -> "Error: Application " + applicationId + " not found.";
+                default -> "Error: Unable to cancel application " + applicationId + ". HTTP Code: " + response.statusCode();
+            };
+        });
+    }
+
+    private static void viewApplicationHistory(Session session, SessionPrefetch prefetch) {
         // Display user's application history
         System.out.println("\n=== Your Applications ===");
         try {
-            // Make the GET request for the logged-in user's application history
-            URL url = new URL(BASE_URL + "/history/" + loggedInUser);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
+            // Prefetched GET for the logged-in user's application history
+            HttpResponse<String> response = prefetch.takeHistory();
 
             // Handle the server response
-            switch (connection.getResponseCode()) {
+            switch (response.statusCode()) {
                 case 200 -> {
-                    try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                        String response;
-                        System.out.println("\n=== Application History ===");
-                        while ((response = in.readLine()) != null) {
-                            System.out.println(response);
-                        }
-                    }
+                    System.out.println("\n=== Application History ===");
+                    System.out.println(response.body());
                 }
                 case 404 -> System.out.println("Error: No application history found for the logged-in user.");
-                default -> System.out.println("Error: Unable to fetch application history. HTTP Code: " + connection.getResponseCode());
+                default -> {
+                    System.out.println("Error: Unable to fetch application history. HTTP Code: " + response.statusCode());
+                    printSavedHistory(session);
+                }
             }
         } catch (IOException e) {
-            System.out.println("An error occurred while fetching the application history:");
-            e.printStackTrace();
+            if (!printSavedHistory(session)) {
+                System.out.println("An error occurred while fetching the application history:");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Falls back to the last history fetched for this user, returns false if there is none
+    private static boolean printSavedHistory(Session session) {
+        Snapshot saved = dormApi.savedHistory(session);
+        if (saved == null) {
+            return false;
         }
+        System.out.println("\n=== Application History (offline copy saved " + formatSavedAt(saved.getSavedAt()) + ") ===");
+        System.out.println(saved.getBodyAsString());
+        return true;
     }
     
-    private static void acceptRoomOffer(Scanner scanner) {
-        if (!isAdmin) {
+    private static void acceptRoomOffer(Scanner scanner, Session session, PendingFeed pendingFeed, SessionPrefetch prefetch) {
+        if (!session.isAdmin()) {
             System.out.println("Error: Only admin users can accept room offers.");
             return;
         }
 
         try {
-            // Fetch all pending applications
+            // Only what changed since the last refresh is shown, the first one lists everything
             System.out.println("\n=== Pending Room Applications ===");
-            URL url = new URL(BASE_URL + "/applications/pending");
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-
-            if (connection.getResponseCode() == 200) {
-                BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                String response;
-                boolean hasPending = false;
-
-                while ((response = in.readLine()) != null) {
-                    System.out.println(response);
-                    hasPending = true;
-                }
-                in.close();
-
-                if (!hasPending) {
-                    System.out.println("No pending room applications found.");
-                    return;
+            PendingChanges changes;
+            try {
+                changes = prefetch.syncPending();
+            } catch (IOException e) {
+                if (!pendingFeed.isStale()) {
+                    throw e;
                 }
-            } else {
-                System.out.println("Error: Unable to fetch pending applications. HTTP Code: " + connection.getResponseCode());
+                printSavedPending(pendingFeed, e);
+                System.out.println("Offers can be accepted once the server is back.");
+                return;
+            }
+            printPendingChanges(changes);
+            List<Application> pending = pendingFeed.getPending();
+            if (pending.isEmpty()) {
+                System.out.println("No pending room applications found.");
                 return;
             }
 
-            // Prompt admin to accept an application
-            System.out.print("\nEnter Application ID to Accept: ");
-            long applicationId = scanner.nextLong();
-
-            // Validate applicationId
-            if (applicationId <= 0) {
-                System.out.println("Error: Application ID must be a positive number.");
+            // Prompt admin for the applications to accept
+            System.out.println("\nEnter Application IDs to Accept, e.g. 12 or 3, 7, 10-20");
+            System.out.print("(or all, room=<Room ID>, user=<username>): ");
+            List<Long> applicationIds = BulkAccepter.select(pending, scanner.nextLine());
+            if (applicationIds.isEmpty()) {
+                System.out.println("No pending applications match that selection.");
                 return;
             }
 
-            // Make the PUT request to accept the offer
-            URL acceptUrl = new URL(BASE_URL + "/accept/" + applicationId);
-            HttpURLConnection acceptConnection = (HttpURLConnection) acceptUrl.openConnection();
-            acceptConnection.setRequestMethod("PUT");
+            System.out.print("Retries for each failed accept (0 for none): ");
+            int retries = scanner.nextInt();
+            scanner.nextLine(); // Consume newline
 
-            switch (acceptConnection.getResponseCode()) {
-                case 200 -> {
-                    try (BufferedReader in = new BufferedReader(new InputStreamReader(acceptConnection.getInputStream()))) {
-                        String response;
-                        System.out.println("\n=== Accept Offer Response ===");
-                        while ((response = in.readLine()) != null) {
-                            System.out.println(response);
-                        }
+            System.out.println("\n=== Accepting " + applicationIds.size() + " Application(s) ===");
+            AtomicInteger done = new AtomicInteger();
+            List<AcceptResult> results = bulkAccepter.acceptAll(applicationIds, Math.max(retries, 0), result ->
+                    System.out.printf("[%d/%d] %s%n", done.incrementAndGet(), applicationIds.size(), describeAccept(result)));
+            prefetch.discardHistory(); // Accepting changes application history, don't serve the prefetched copy
+
+            int accepted = 0;
+            for (AcceptResult result : results) {
+                if (result.isAccepted()) {
+                    pendingFeed.forget(result.getApplicationId());
+                    accepted++;
+                }
+            }
+            System.out.println("Accepted " + accepted + " of " + results.size() + " application(s).");
+            if (accepted < results.size()) {
+                System.out.println("Failed:");
+                for (AcceptResult result : results) {
+                    if (!result.isAccepted()) {
+                        System.out.println("  " + describeAccept(result));
                     }
                 }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (HttpStatusException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("An error occurred while accepting offers:");
+            e.printStackTrace();
+        }
+    }
 
-                case 404 -> System.out.println("Error: Application not found.");
-                default -> System.out.println("Error: Unable to accept offer. HTTP Code: " + acceptConnection.getResponseCode());
+    private static void viewPendingApplications(PendingFeed pendingFeed, SessionPrefetch prefetch) {
+        try {
+            System.out.println("\n=== Pending Room Applications ===");
+            try {
+                prefetch.syncPending();
+            } catch (IOException e) {
+                if (!pendingFeed.isStale()) {
+                    throw e;
+                }
+                printSavedPending(pendingFeed, e);
+                return;
             }
+            List<Application> pending = pendingFeed.getPending();
+            if (pending.isEmpty()) {
+                System.out.println("No pending room applications found.");
+                return;
+            }
+            for (Application application : pending) {
+                printApplication("", application);
+            }
+            System.out.println(pending.size() + " pending application(s).");
+        } catch (HttpStatusException e) {
+            System.out.println("Error: " + e.getMessage());
         } catch (IOException e) {
-            System.out.println("An error occurred while accepting the offer:");
+            System.out.println("An error occurred while fetching pending applications:");
             e.printStackTrace();
         }
     }
-    
-    private static void checkDistanceToRoom(Scanner scanner) {
-        if (loggedInUser == null) {
+
+    // The last pending list this client saw, for when the server can't be reached
+    private static void printSavedPending(PendingFeed pendingFeed, IOException error) {
+        System.out.println("Error: " + error.getMessage());
+        System.out.println("Showing the pending list saved " + formatSavedAt(pendingFeed.getSyncedAt()) + ":");
+        for (Application application : pendingFeed.getPending()) {
+            printApplication("", application);
+        }
+        System.out.println(pendingFeed.getPending().size() + " pending application(s).");
+    }
+
+    private static String formatSavedAt(long millis) {
+        return SAVED_AT_FORMAT.format(Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()));
+    }
+
+    private static void printPendingChanges(PendingChanges changes) {
+        if (changes.isEmpty()) {
+            System.out.println("No changes since the last refresh.");
+        }
+        for (Application application : changes.getAdded()) {
+            printApplication("New:     ", application);
+        }
+        for (Application application : changes.getChanged()) {
+            printApplication("Changed: ", application);
+        }
+        for (Application application : changes.getRemoved()) {
+            printApplication("Removed: ", application);
+        }
+        System.out.println(changes.getPendingCount() + " pending application(s).");
+    }
+
+    private static void printApplication(String prefix, Application application) {
+        System.out.printf("%s[%d] Room %d - %s (%s)%n", prefix, application.getApplicationId(), application.getRoomId(),
+                application.getUserId(), application.getStatus());
+    }
+
+    private static String describeAccept(AcceptResult result) {
+        String outcome;
+        switch (result.getStatusCode()) {
+            case 200 -> outcome = "accepted";
+            case 404 -> outcome = "not found";
+            case -1 -> outcome = "failed: " + result.getError();
+            default -> outcome = "failed, HTTP Code: " + result.getStatusCode();
+        }
+        String attempts = result.getAttempts() > 1 ? " (after " + result.getAttempts() + " attempts)" : "";
+        return "Application " + result.getApplicationId() + " " + outcome + attempts;
+    }
+
+    private static void checkDistanceToRoom(Scanner scanner, Session session) {
+        if (session == null) {
             System.out.println("Error: No user is currently logged in.");
             return;
         }
@@ -456,34 +773,28 @@ public class GlobalDormClient {
                 return;
             }
 
-            // Call the proximity endpoint
-            URL url = new URL(BASE_URL + "/proximity?userPostcode=" + URLEncoder.encode(userPostcode, "UTF-8") + "&roomId=" + roomId);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
+            Room room = roomCache.findRoom(roomId);
+            if (room == null) {
+                System.out.println("Error: Room not found.");
+                return;
+            }
 
-            // Handle the server response
-            switch (connection.getResponseCode()) {
-                case 200 -> {
-                    StringBuilder response;
-                    try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                        response = new StringBuilder();
-                        String line;
-                        while ((line = in.readLine()) != null) {
-                            response.append(line);
-                        }
-                    }
-                    // Parse the JSON response and extract distance
-                    double distanceMeters = parseDistanceFromResponse(response.toString());
-                    if (distanceMeters >= 0) {
-                        double distanceKilometers = distanceMeters / 1000.0; // Convert meters to kilometers
-                        System.out.printf("\nThe distance to the room is %.2f km.%n", distanceKilometers);
-                    } else {
-                        System.out.println("Error: Unable to extract distance from response.");
-                    }
-                }
+            scanner.nextLine(); // Consume newline
+            boolean exact = askExactDistance(scanner);
 
-                case 404 -> System.out.println("Error: Room not found or invalid postcode.");
-                default -> System.out.println("Error: Unable to fetch proximity data. HTTP Code: " + connection.getResponseCode());
+            // Computed locally when possible, otherwise the proximity endpoint (memoized per postcode and room)
+            double distanceMeters = proximityService.distanceTo(userPostcode, roomId, exact);
+            if (distanceMeters >= 0) {
+                double distanceKilometers = distanceMeters / 1000.0; // Convert meters to kilometers
+                System.out.printf("\nThe distance to %s (%s) is %.2f km.%n", room.getName(), room.getPostcode(), distanceKilometers);
+            } else {
+                System.out.println("Error: Unable to extract distance from response.");
+            }
+        } catch (HttpStatusException e) {
+            if (e.getStatusCode() == 404) {
+                System.out.println("Error: Room not found or invalid postcode.");
+            } else {
+                System.out.println("Error: " + e.getMessage());
             }
         } catch (IOException e) {
             System.out.println("An error occurred while checking proximity:");
@@ -491,21 +802,62 @@ public class GlobalDormClient {
         }
     }
     
-    private static double parseDistanceFromResponse(String jsonResponse) {
+    private static void rankRoomsByDistance(Scanner scanner) {
         try {
-            // Parse the JSON response using Gson
-            JsonObject jsonObject = new Gson().fromJson(jsonResponse, JsonObject.class);
-            JsonArray routes = jsonObject.getAsJsonArray("routes");
-            if (routes != null && routes.size() > 0) {
-                JsonObject route = routes.get(0).getAsJsonObject();
-                return route.get("distance").getAsDouble(); // Extract distance in meters
-            }
-        } catch (JsonSyntaxException e) {
+            System.out.print("Enter your postcode: ");
+            String userPostcode = scanner.nextLine();
+            if (userPostcode.isBlank()) {
+                System.out.println("Error: Postcode cannot be blank.");
+                return;
+            }
+
+            System.out.print("How many rooms to show (0 for all): ");
+            int topK = scanner.nextInt();
+            scanner.nextLine(); // Consume newline
+            boolean exact = askExactDistance(scanner);
+
+            List<RoomDistance> ranked = proximityService.rankRooms(userPostcode, topK, exact);
+            if (ranked.isEmpty()) {
+                System.out.println("No room distances could be found for that postcode.");
+                return;
+            }
+
+            System.out.println("\n=== Nearest Rooms ===");
+            int position = 1;
+            for (RoomDistance entry : ranked) {
+                Room room = entry.getRoom();
+                System.out.printf("%d. [%d] %s (%s) - %.2f km%n", position++, room.getId(), room.getName(),
+                        room.getPostcode(), entry.getDistanceMeters() / 1000.0);
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while ranking rooms:");
             e.printStackTrace();
         }
-        return -1; // Return -1 if parsing fails
     }
-    
+
+    // Only asks when a local postcode dataset makes straight-line distances possible
+    private static boolean askExactDistance(Scanner scanner) {
+        if (!proximityService.hasLocalData()) {
+            return true;
+        }
+        System.out.print("Use exact road distance? (yes/no): ");
+        return scanner.nextLine().equalsIgnoreCase("yes");
+    }
+
+    private static PostcodeIndex loadPostcodes() {
+        Path path = Path.of(POSTCODES_FILE);
+        if (!Files.exists(path)) {
+            return null; // No offline dataset, all distances come from the server
+        }
+        try {
+            return PostcodeIndex.load(path);
+        } catch (IOException e) {
+            System.out.println("Error loading postcode data, using server distances only.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     private static void checkWeather(Scanner scanner) {
         try {
             System.out.println("\n=== Check Weather ===");
@@ -516,7 +868,7 @@ public class GlobalDormClient {
             int choice = scanner.nextInt();
             scanner.nextLine(); // Consume newline
 
-            String endpoint;
+            Weather weather;
             switch (choice) {
                 case 1 -> {
                     // Check weather by Room ID
@@ -527,7 +879,7 @@ public class GlobalDormClient {
                     if (roomId <= 0) {
                         System.out.println("Error: Room ID must be a positive number.");
                         return;
-                    }   endpoint = BASE_URL + "/weather/room?roomId=" + roomId;
+                    }   weather = weatherCache.getByRoom(roomId);
                 }
                 case 2 -> {
                     // Check weather by Postcode
@@ -537,7 +889,7 @@ public class GlobalDormClient {
                     if (postcode.isBlank()) {
                         System.out.println("Error: Postcode cannot be blank.");
                         return;
-                    }   endpoint = BASE_URL + "/weather/postcode?postcode=" + URLEncoder.encode(postcode, "UTF-8");
+                    }   weather = weatherCache.getByPostcode(postcode);
                 }
                 default -> {
                     System.out.println("Invalid option.");
@@ -545,54 +897,24 @@ public class GlobalDormClient {
                 }
             }
 
-            // Call the weather endpoint
-            URL url = new URL(endpoint);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-
-            // Handle the server response
-            if (connection.getResponseCode() == 200) {
-                StringBuilder response;
-                try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                    response = new StringBuilder();
-                    String line;
-                    while ((line = in.readLine()) != null) {
-                        response.append(line);
-                    }
-                }
-
-                // Parse and pretty print the weather data
-                prettyPrintWeather(response.toString());
-            } else {
-                System.out.println("Error: Unable to fetch weather data. HTTP Code: " + connection.getResponseCode());
-            }
+            // Pretty print the (possibly cached) weather data
+            prettyPrintWeather(weather);
+        } catch (HttpStatusException e) {
+            System.out.println("Error: " + e.getMessage());
         } catch (IOException e) {
             System.out.println("An error occurred while checking weather:");
             e.printStackTrace();
         }
     }
     
-    private static void prettyPrintWeather(String jsonResponse) {
-        try {
-            Gson gson = new Gson();
-            JsonObject jsonObject = gson.fromJson(jsonResponse, JsonObject.class);
-
-            if (jsonObject.has("weather")) {
-                JsonObject weather = jsonObject.getAsJsonObject("weather");
-                int timepoint = weather.get("timepoint").getAsInt();
-                int temperature = weather.get("temperature").getAsInt();
-                int cloudcover = weather.get("cloudcover").getAsInt();
-
-                System.out.println("\n=== Weather Information ===");
-                System.out.println("Forecast Timepoint: " + timepoint + " hours from now");
-                System.out.println("Temperature: " + temperature + "°C");
-                System.out.println("Cloud Cover: " + cloudcover + " (scale of 1-9)");
-            } else {
-                System.out.println("No weather data available.");
-            }
-        } catch (JsonSyntaxException e) {
-            System.out.println("Error while parsing weather data:");
-            e.printStackTrace();
+    private static void prettyPrintWeather(Weather weather) {
+        if (weather != null) {
+            System.out.println("\n=== Weather Information ===");
+            System.out.println("Forecast Timepoint: " + weather.getTimepoint() + " hours from now");
+            System.out.println("Temperature: " + weather.getTemperature() + "°C");
+            System.out.println("Cloud Cover: " + weather.getCloudcover() + " (scale of 1-9)");
+        } else {
+            System.out.println("No weather data available.");
         }
     }
     
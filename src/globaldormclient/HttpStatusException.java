@@ -0,0 +1,21 @@
+package globaldormclient;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an endpoint answers with a status code the caller can't use.
+ */
+public class HttpStatusException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public HttpStatusException(String message, int statusCode) {
+        super(message + " HTTP Code: " + statusCode);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,405 @@
+package globaldormclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Shared HTTP transport used by every GlobalDorm endpoint.
+ * A single long-lived HttpClient is reused so connections are kept alive
+ * between calls instead of being opened per request.
+ * Every call is timed into the endpoint's stats, and with tracing on each
+ * request logs when its headers, first body byte and last body byte arrived.
+ *
+ * Calls follow the ResiliencePolicy: connect and per-endpoint read timeouts,
+ * a circuit breaker per node and endpoint, and for GETs retries with jittered
+ * exponential backoff plus, optionally, a hedged duplicate sent once the
+ * first attempt has been outstanding longer than the endpoint's p95.
+ *
+ * With several backend nodes each attempt is routed through the NodePool.
+ * GETs that fail on one node are retried straight away on a healthy node
+ * not yet tried, and hedges go to a different node than the first try. Other methods
+ * are sent to one node only and never re-sent elsewhere.
+ */
+public class HttpTransport {
+    private final String baseUrl;
+    private final String basePath;
+    private final HttpClient client;
+    private static final int HEDGE_MIN_SAMPLES = 20; // p95 means little before this many calls
+    private static final long HEDGE_MIN_DELAY_MICROS = 5_000;
+    private static final boolean COMPRESSION = Boolean.parseBoolean(System.getProperty("globaldorm.compression", "true"));
+    private static final Duration HEALTH_CHECK_INTERVAL = Duration.ofMillis(Long.getLong("globaldorm.healthCheckMs", 5_000));
+
+    private final Metrics metrics;
+    private final ResiliencePolicy policy;
+    private final NodePool nodes;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private volatile boolean trace;
+
+    public HttpTransport(String baseUrl) {
+        this(baseUrl, new Metrics(false));
+    }
+
+    public HttpTransport(String baseUrl, Metrics metrics) {
+        this(baseUrl, metrics, ResiliencePolicy.fromSystemProperties());
+    }
+
+    public HttpTransport(String baseUrl, Metrics metrics, ResiliencePolicy policy) {
+        this(baseUrl, metrics, policy, NodePool.fromSystemProperties(baseUrl));
+    }
+
+    public HttpTransport(String baseUrl, Metrics metrics, ResiliencePolicy policy, NodePool nodes) {
+        this.baseUrl = baseUrl;
+        this.basePath = URI.create(baseUrl).getRawPath();
+        this.metrics = metrics;
+        this.policy = policy;
+        this.nodes = nodes;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2) // Falls back to HTTP/1.1 when the server doesn't upgrade
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(policy.getConnectTimeout())
+                .build();
+        nodes.startHealthChecks(client, basePath, HEALTH_CHECK_INTERVAL);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public NodePool getNodes() {
+        return nodes;
+    }
+
+    // Logs per-request timing phases to stderr
+    public void setTrace(boolean trace) {
+        this.trace = trace;
+    }
+
+    // Starts a request for a path relative to the base URL, with that endpoint's read timeout
+    public HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(policy.readTimeout(Metrics.template(path)));
+        if (COMPRESSION) {
+            builder.header("Accept-Encoding", "gzip, deflate"); // Decoded by TimedExchange before the caller sees the body
+        }
+        return builder;
+    }
+
+    // Breaker state per node and endpoint, e.g. "http://host1:8080/weather/room" -> "open"
+    public Map<String, String> getBreakerStates() {
+        Map<String, String> states = new TreeMap<>();
+        breakers.forEach((endpoint, breaker) -> states.put(endpoint, breaker.getState()));
+        return states;
+    }
+
+    public HttpResponse<String> get(String path) throws IOException {
+        return send(request(path).GET());
+    }
+
+    public HttpResponse<String> post(String path, String json) throws IOException {
+        return send(request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8)));
+    }
+
+    public HttpResponse<String> put(String path) throws IOException {
+        return send(request(path).PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    public HttpResponse<String> delete(String path) throws IOException {
+        return send(request(path).DELETE());
+    }
+
+    public HttpResponse<String> send(HttpRequest.Builder builder) throws IOException {
+        return send(builder, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    public <T> HttpResponse<T> send(HttpRequest.Builder builder, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return sendAsync(builder, handler).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    public CompletableFuture<HttpResponse<String>> getAsync(String path) {
+        return sendAsync(request(path).GET());
+    }
+
+    public CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest.Builder builder) {
+        return sendAsync(builder, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest.Builder builder, HttpResponse.BodyHandler<T> handler) {
+        HttpRequest request = builder.build();
+        String endpoint = Metrics.template(relativePath(request));
+        return attempt(request, handler, endpoint, 0, Set.of());
+    }
+
+    // One try plus, for GETs, any retries left; 429 and 5xx responses are retried like I/O failures.
+    // A failed GET moves to a healthy node it hasn't tried at once, and only backs off once every node has been tried.
+    private <T> CompletableFuture<HttpResponse<T>> attempt(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+            String endpoint, int retries, Set<BackendNode> tried) {
+        boolean idempotent = request.method().equals("GET");
+        BackendNode node = nodes.choose(tried);
+        CircuitBreaker breaker = breaker(node, endpoint);
+        if (!breaker.allowRequest()) {
+            Set<BackendNode> skipped = with(tried, node);
+            if (nodes.canFailOver(skipped)) {
+                return attempt(request, handler, endpoint, retries, skipped); // Nothing was sent, so any method may go elsewhere
+            }
+            return CompletableFuture.failedFuture(new CircuitOpenException(node.getOrigin() + endpoint));
+        }
+        CompletableFuture<HttpResponse<T>> call = idempotent && policy.isHedging()
+                ? hedged(request, handler, node) : exchange(request, handler, node);
+        return call.handle((response, error) -> {
+            Throwable cause = unwrap(error);
+            int status = response == null ? -1 : response.statusCode();
+            if (cause != null || status >= 500) {
+                breaker.recordFailure();
+            } else {
+                breaker.recordSuccess();
+            }
+            boolean retryable = cause instanceof IOException || status == 429 || status >= 500;
+            Set<BackendNode> failed = with(tried, node);
+            if (retryable && idempotent && nodes.canFailOver(failed)) {
+                discard(response);
+                return attempt(request, handler, endpoint, retries, failed);
+            }
+            if (!retryable || !idempotent || retries >= policy.getMaxRetries()) {
+                return cause == null ? CompletableFuture.completedFuture(response) : CompletableFuture.<HttpResponse<T>>failedFuture(cause);
+            }
+            discard(response);
+            Executor delayed = CompletableFuture.delayedExecutor(policy.backoffMillis(retries + 1), TimeUnit.MILLISECONDS);
+            return CompletableFuture.runAsync(() -> { }, delayed)
+                    .thenCompose(ignored -> attempt(request, handler, endpoint, retries + 1, Set.of(node)));
+        }).thenCompose(next -> next);
+    }
+
+    private CircuitBreaker breaker(BackendNode node, String endpoint) {
+        return breakers.computeIfAbsent(node.getOrigin() + endpoint, key -> policy.newCircuitBreaker());
+    }
+
+    private static Set<BackendNode> with(Set<BackendNode> nodes, BackendNode node) {
+        Set<BackendNode> result = new HashSet<>(nodes);
+        result.add(node);
+        return result;
+    }
+
+    // Sends a duplicate, to another node if there is one, if the first try outlives the endpoint's p95;
+    // the first good response wins
+    private <T> CompletableFuture<HttpResponse<T>> hedged(HttpRequest request, HttpResponse.BodyHandler<T> handler, BackendNode node) {
+        OperationStats stats = metrics.http(request.method(), relativePath(request));
+        CompletableFuture<HttpResponse<T>> first = exchange(request, handler, node);
+        if (stats.getCount() < HEDGE_MIN_SAMPLES) {
+            return first;
+        }
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        BiConsumer<HttpResponse<T>, Throwable> settle = (response, error) -> {
+            boolean last = outstanding.decrementAndGet() == 0;
+            boolean good = error == null && response.statusCode() < 500;
+            if ((good || last) && (error == null ? result.complete(response) : result.completeExceptionally(unwrap(error)))) {
+                return;
+            }
+            discard(response); // Lost the race, or failed while the other try is still running
+        };
+        first.whenComplete(settle);
+
+        long delay = Math.max(HEDGE_MIN_DELAY_MICROS, stats.getP95Micros());
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MICROSECONDS).execute(() -> {
+            if (!result.isDone() && outstanding.getAndIncrement() > 0) {
+                exchange(request, handler, nodes.choose(Set.of(node))).whenComplete(settle);
+            }
+        });
+        return result;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> exchange(HttpRequest request, HttpResponse.BodyHandler<T> handler, BackendNode node) {
+        HttpRequest routed = route(request, node);
+        TimedExchange<T> exchange = new TimedExchange<>(routed, handler, node);
+        return client.sendAsync(routed, exchange).whenComplete((response, error) -> {
+            if (error != null) {
+                exchange.failed(unwrap(error));
+            }
+        });
+    }
+
+    // The same request addressed to the given node
+    private static HttpRequest route(HttpRequest request, BackendNode node) {
+        URI uri = node.resolve(request.uri());
+        if (uri.equals(request.uri())) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true).uri(uri).build();
+    }
+
+    private String relativePath(HttpRequest request) {
+        String path = request.uri().getRawPath();
+        return path.startsWith(basePath) ? path.substring(basePath.length()) : path;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    // Releases a response nobody will read, e.g. an InputStream body
+    private static void discard(HttpResponse<?> response) {
+        if (response != null && response.body() instanceof Closeable body) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                // Nothing left to clean up
+            }
+        }
+    }
+
+    // Wraps the caller's body handler to time each phase and count the bytes received.
+    // HttpClient doesn't expose connection setup, so any connect time is part of the headers phase.
+    private class TimedExchange<T> implements HttpResponse.BodyHandler<T> {
+        private final HttpRequest request;
+        private final HttpResponse.BodyHandler<T> handler;
+        private final BackendNode node;
+        private final OperationStats stats;
+        private final long bytesOut;
+        private final long startedAt = System.nanoTime();
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean(); // Node load is released at the headers, bodies can be abandoned
+        private volatile long headersAt;
+        private volatile long firstByteAt;
+        private volatile int status;
+        private volatile DecodingBodySubscriber<T> decoder; // Set when the body arrives compressed
+        private long bytesIn; // Only touched by the subscriber, which is signalled serially
+
+        TimedExchange(HttpRequest request, HttpResponse.BodyHandler<T> handler, BackendNode node) {
+            this.request = request;
+            this.handler = handler;
+            this.node = node;
+            this.stats = metrics.http(request.method(), relativePath(request));
+            this.bytesOut = Math.max(0, request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L));
+            node.begin();
+        }
+
+        @Override
+        public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo info) {
+            headersAt = System.nanoTime();
+            status = info.statusCode();
+            release(headersAt, status >= 500);
+            HttpResponse.BodySubscriber<T> subscriber = handler.apply(info);
+            String encoding = info.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+            if (DecodingBodySubscriber.supports(encoding)) {
+                decoder = new DecodingBodySubscriber<>(subscriber, encoding);
+                subscriber = decoder;
+            }
+            HttpResponse.BodySubscriber<T> delegate = subscriber;
+            return new HttpResponse.BodySubscriber<>() {
+                @Override
+                public CompletionStage<T> getBody() {
+                    return delegate.getBody();
+                }
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    delegate.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(List<ByteBuffer> buffers) {
+                    if (firstByteAt == 0) {
+                        firstByteAt = System.nanoTime();
+                    }
+                    for (ByteBuffer buffer : buffers) {
+                        bytesIn += buffer.remaining();
+                    }
+                    delegate.onNext(buffers);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    failed(error);
+                    delegate.onError(error);
+                }
+
+                @Override
+                public void onComplete() {
+                    completed();
+                    delegate.onComplete();
+                }
+            };
+        }
+
+        private void completed() {
+            if (!recorded.compareAndSet(false, true)) {
+                return;
+            }
+            long now = System.nanoTime();
+            stats.record(now - startedAt, status, bytesIn, bytesOut);
+            if (trace) {
+                String firstByte = firstByteAt == 0 ? "-" : String.format("%.1f ms", millis(firstByteAt));
+                String decoded = decoder == null || bytesIn == 0 ? "" : String.format(" (%d B decoded, %.1fx)",
+                        decoder.getDecodedBytes(), (double) decoder.getDecodedBytes() / bytesIn);
+                System.err.printf("[trace] %s %s -> %d headers %.1f ms, first byte %s, body %.1f ms, %d B in%s, %d B out%n",
+                        request.method(), request.uri(), status, millis(headersAt), firstByte, millis(now), bytesIn, decoded, bytesOut);
+            }
+        }
+
+        private void failed(Throwable error) {
+            long now = System.nanoTime();
+            release(now, true);
+            if (!recorded.compareAndSet(false, true)) {
+                return;
+            }
+            stats.recordError(now - startedAt, bytesOut);
+            if (trace) {
+                System.err.printf("[trace] %s %s -> failed after %.1f ms%s: %s%n", request.method(), request.uri(), millis(now),
+                        headersAt == 0 ? "" : String.format(" (headers %.1f ms)", millis(headersAt)), error);
+            }
+        }
+
+        private void release(long at, boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                node.end((at - startedAt) / 1_000, failed);
+            }
+        }
+
+        private double millis(long at) {
+            return (at - startedAt) / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package globaldormclient;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written streaming type adapters for the client's models, registered on
+ * one shared Gson instance. They read only the fields the client uses
+ * straight from JsonReader, without reflection or a JsonObject tree.
+ */
+public final class JsonAdapters {
+    public static final TypeAdapter<User> USER = new UserAdapter().nullSafe();
+    public static final TypeAdapter<Room> ROOM = new RoomAdapter().nullSafe();
+    public static final TypeAdapter<Application> APPLICATION = new ApplicationAdapter().nullSafe();
+
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(User.class, USER)
+            .registerTypeAdapter(Room.class, ROOM)
+            .registerTypeAdapter(Application.class, APPLICATION)
+            .disableHtmlEscaping()
+            .create();
+
+    private JsonAdapters() {
+    }
+
+    // Distance in meters of the first route in a /proximity response, or -1 if there is none
+    public static double readDistance(String json) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return -1;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("routes") || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                if (!reader.hasNext() || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    return -1;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("distance") && reader.peek() == JsonToken.NUMBER) {
+                        return reader.nextDouble();
+                    }
+                    reader.skipValue();
+                }
+                return -1; // Only the first route matters, the rest is never read
+            }
+        }
+        return -1;
+    }
+
+    // Weather section of a /weather response, or null if it has none
+    public static Weather readWeather(String json, long fetchedAt) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return null;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("weather") || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    continue;
+                }
+                int timepoint = 0;
+                int temperature = 0;
+                int cloudcover = 0;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "timepoint" -> timepoint = reader.nextInt();
+                        case "temperature" -> temperature = reader.nextInt();
+                        case "cloudcover" -> cloudcover = reader.nextInt();
+                        default -> reader.skipValue();
+                    }
+                }
+                return new Weather(timepoint, temperature, cloudcover, fetchedAt);
+            }
+        }
+        return null;
+    }
+
+    // Reads a top-level array of applications
+    public static List<Application> readApplications(JsonReader reader) throws IOException {
+        List<Application> applications = new ArrayList<>();
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return applications;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            applications.add(APPLICATION.read(reader));
+        }
+        reader.endArray();
+        return applications;
+    }
+
+    private static class UserAdapter extends TypeAdapter<User> {
+        @Override
+        public void write(JsonWriter out, User user) throws IOException {
+            out.beginObject();
+            out.name("username").value(user.getUsername());
+            out.name("password").value(user.getPassword());
+            out.name("isAdmin").value(user.isAdmin());
+            out.endObject();
+        }
+
+        @Override
+        public User read(JsonReader in) throws IOException {
+            String username = null;
+            String password = null;
+            boolean admin = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "username" -> username = in.nextString();
+                    case "password" -> password = in.nextString();
+                    case "isAdmin" -> admin = in.nextBoolean();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new User(username, password, admin);
+        }
+    }
+
+    private static class RoomAdapter extends TypeAdapter<Room> {
+        @Override
+        public void write(JsonWriter out, Room room) throws IOException {
+            out.beginObject();
+            out.name("id").value(room.getId());
+            out.name("name").value(room.getName());
+            out.name("location").beginObject();
+            out.name("city").value(room.getCity());
+            out.name("county").value(room.getCounty());
+            out.name("postcode").value(room.getPostcode());
+            out.endObject();
+            out.name("details").beginObject();
+            out.name("furnished").value(room.isFurnished());
+            writeStrings(out.name("amenities"), room.getAmenities());
+            out.name("live_in_landlord").value(room.isLiveInLandlord());
+            out.name("shared_with").value(room.getSharedWith());
+            out.name("bills_included").value(room.isBillsIncluded());
+            out.name("bathroom_shared").value(room.isBathroomShared());
+            out.endObject();
+            out.name("price_per_month_gbp").value(room.getPricePerMonth());
+            out.name("availability_date").value(room.getAvailabilityDate());
+            writeStrings(out.name("spoken_languages"), room.getSpokenLanguages());
+            out.endObject();
+        }
+
+        @Override
+        public Room read(JsonReader in) throws IOException {
+            return RoomStream.readRoom(in);
+        }
+
+        private static void writeStrings(JsonWriter out, List<String> values) throws IOException {
+            out.beginArray();
+            for (String value : values) {
+                out.value(value);
+            }
+            out.endArray();
+        }
+    }
+
+    private static class ApplicationAdapter extends TypeAdapter<Application> {
+        @Override
+        public void write(JsonWriter out, Application application) throws IOException {
+            out.beginObject();
+            out.name("applicationId").value(application.getApplicationId());
+            out.name("roomId").value(application.getRoomId());
+            out.name("userId").value(application.getUserId());
+            out.name("status").value(application.getStatus());
+            out.endObject();
+        }
+
+        @Override
+        public Application read(JsonReader in) throws IOException {
+            Application application = new Application();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "applicationId", "id" -> application.setApplicationId(in.nextLong());
+                    case "roomId" -> application.setRoomId(in.nextLong());
+                    case "userId" -> application.setUserId(in.nextString());
+                    case "status" -> application.setStatus(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return application;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a weighted mix of client operations against a GlobalDorm backend
+ * and reports latency percentiles and throughput per endpoint.
+ *
+ * Runs either closed-loop (a fixed number of workers, --concurrency) or
+ * open-loop at a target request rate (--rate). In rate mode latency is
+ * measured from each request's scheduled start, so a stalled backend shows
+ * up in the percentiles instead of silently lowering the send rate.
+ * With --stub the bundled StubServer is started in-process.
+ */
+public class LoadGenerator {
+    private static final String DEFAULT_MIX = "rooms=20,apply=15,cancel=5,history=15,pending=5,accept=5,proximity=15,weather=20";
+
+    private final DormApi dormApi;
+    private final HttpTransport transport;
+    private final String[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final AtomicLong nextApplicationId = new AtomicLong(System.currentTimeMillis());
+    private final Session student = new Session("loadtest-student", false);
+
+    private static class Endpoint {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+    }
+
+    public LoadGenerator(HttpTransport transport, String mix) {
+        this.transport = transport;
+        this.dormApi = new DormApi(transport);
+        List<String> names = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                names.add(parts[0]);
+                weights.add(weight);
+                endpoints.put(parts[0], new Endpoint());
+            }
+        }
+        this.operations = names.toArray(new String[0]);
+        this.cumulativeWeights = new int[weights.size()];
+        int running = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            running += weights.get(i);
+            cumulativeWeights[i] = running;
+        }
+        this.totalWeight = running;
+    }
+
+    // Entry point for --load-test [--stub] [--base-url URL] [--rate N | --concurrency N] [--duration S] [--mix op=w,...] [--delay-ms N]
+    public static void run(String[] args, String defaultBaseUrl, PrintStream out) throws IOException, InterruptedException {
+        String baseUrl = defaultBaseUrl;
+        boolean stub = false;
+        int rate = 0;
+        int concurrency = 16;
+        int durationSeconds = 30;
+        long delayMs = 5;
+        int rooms = 500;
+        String mix = DEFAULT_MIX;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--stub" -> stub = true;
+                case "--base-url" -> baseUrl = args[++i];
+                case "--rate" -> rate = Integer.parseInt(args[++i]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--duration" -> durationSeconds = Integer.parseInt(args[++i]);
+                case "--mix" -> mix = args[++i];
+                case "--delay-ms" -> delayMs = Long.parseLong(args[++i]);
+                case "--rooms" -> rooms = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown load-test option: " + args[i]);
+            }
+        }
+
+        StubServer server = null;
+        if (stub) {
+            server = new StubServer(0, rooms, delayMs, delayMs / 2);
+            server.start();
+            baseUrl = server.getBaseUrl();
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(new HttpTransport(baseUrl, new Metrics(false), ResiliencePolicy.timeoutsOnly()), mix);
+            long elapsedNanos = rate > 0
+                    ? generator.runAtRate(rate, concurrency, durationSeconds)
+                    : generator.runClosedLoop(concurrency, durationSeconds);
+            generator.report(out, elapsedNanos);
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    // Each worker issues its next request as soon as the previous one finishes
+    public long runClosedLoop(int concurrency, int durationSeconds) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    execute(pick(), System.nanoTime());
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    // Sends requests on a fixed schedule regardless of how fast responses come back
+    public long runAtRate(int requestsPerSecond, int maxThreads, int durationSeconds) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(maxThreads, 1));
+        long interval = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long start = System.nanoTime();
+        long total = (long) requestsPerSecond * durationSeconds;
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + i * interval;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            String operation = pick();
+            workers.execute(() -> execute(operation, scheduled));
+        }
+        workers.shutdown();
+        workers.awaitTermination(60, TimeUnit.SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    public void report(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long totalRequests = 0;
+        out.println("\n=== Load Test Results ===");
+        out.printf("%-10s %8s %8s %9s %9s %9s %9s %9s %10s%n",
+                "endpoint", "count", "errors", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "req/s");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            LatencyHistogram latency = entry.getValue().latency;
+            long count = latency.getCount();
+            totalRequests += count;
+            out.printf("%-10s %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f %10.1f%n",
+                    entry.getKey(), count, entry.getValue().errors.sum(),
+                    latency.getMeanMicros() / 1000.0,
+                    latency.percentile(50) / 1000.0, latency.percentile(90) / 1000.0,
+                    latency.percentile(99) / 1000.0, latency.percentile(99.9) / 1000.0,
+                    count / seconds);
+        }
+        out.printf("Total: %d requests in %.1f s (%.1f req/s)%n", totalRequests, seconds, totalRequests / seconds);
+    }
+
+    private String pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(String operation, long scheduledNanos) {
+        Endpoint endpoint = endpoints.get(operation);
+        boolean ok;
+        try {
+            ok = call(operation) < 500;
+        } catch (IOException | RuntimeException e) {
+            ok = false;
+        }
+        endpoint.latency.recordNanos(System.nanoTime() - scheduledNanos);
+        if (!ok) {
+            endpoint.errors.increment();
+        }
+    }
+
+    // Performs one operation and returns its HTTP status
+    private int call(String operation) throws IOException {
+        long roomId = 1 + ThreadLocalRandom.current().nextInt(100);
+        HttpResponse<String> response = switch (operation) {
+            case "rooms" -> transport.get("");
+            case "apply" -> dormApi.apply(student, nextApplicationId.incrementAndGet(), roomId);
+            case "cancel" -> dormApi.cancel(nextApplicationId.get() - ThreadLocalRandom.current().nextInt(10));
+            case "history" -> dormApi.history(student);
+            case "pending" -> dormApi.pending();
+            case "accept" -> dormApi.accept(nextApplicationId.get() - ThreadLocalRandom.current().nextInt(10));
+            case "proximity" -> transport.get("/proximity?userPostcode=NG1%204BU&roomId=" + roomId);
+            case "weather" -> transport.get("/weather/room?roomId=" + roomId);
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        };
+        return response.statusCode();
+    }
+}
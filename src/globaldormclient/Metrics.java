@@ -0,0 +1,152 @@
+package globaldormclient;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of per-operation stats for HTTP endpoints and the user store.
+ * Each entry can be published as an MBean under "globaldormclient:type=...",
+ * and a reporter can append a snapshot of every entry to a JSON-lines file
+ * at a fixed interval.
+ */
+public class Metrics implements Closeable {
+    private static final String DOMAIN = "globaldormclient";
+
+    private final boolean jmx;
+    private final ConcurrentHashMap<String, OperationStats> stats = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+    private Path reportFile;
+
+    public Metrics(boolean jmx) {
+        this.jmx = jmx;
+    }
+
+    // Stats for an HTTP call, grouped by method and path template such as "PUT /accept/{id}"
+    public OperationStats http(String method, String path) {
+        return get("Endpoint", method + " " + template(path));
+    }
+
+    public OperationStats userStore(String operation) {
+        return get("UserStore", operation);
+    }
+
+    public OperationStats get(String type, String name) {
+        OperationStats existing = stats.get(type + ":" + name);
+        if (existing != null) {
+            return existing;
+        }
+        return stats.computeIfAbsent(type + ":" + name, key -> register(new OperationStats(type, name)));
+    }
+
+    // Appends one JSON line per operation to the file every interval, and once more on close
+    public synchronized void startReporter(Path file, Duration interval) {
+        if (reporter != null) {
+            return;
+        }
+        reportFile = file;
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        reporter.scheduleAtFixedRate(this::report, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void writeSnapshot(Writer out) throws IOException {
+        long now = System.currentTimeMillis();
+        for (OperationStats entry : stats.values()) {
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            json.name("timestamp").value(now);
+            json.name("type").value(entry.getType());
+            json.name("name").value(entry.getName());
+            json.name("count").value(entry.getCount());
+            json.name("errors").value(entry.getErrors());
+            json.name("bytesIn").value(entry.getBytesIn());
+            json.name("bytesOut").value(entry.getBytesOut());
+            json.name("meanMicros").value(Math.round(entry.getMeanMicros()));
+            json.name("p50Micros").value(entry.getP50Micros());
+            json.name("p95Micros").value(entry.getP95Micros());
+            json.name("p99Micros").value(entry.getP99Micros());
+            json.name("status").beginObject();
+            for (Map.Entry<Integer, Long> status : entry.getStatuses().entrySet()) {
+                json.name(String.valueOf(status.getKey())).value(status.getValue());
+            }
+            json.endObject();
+            json.endObject();
+            json.flush();
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+            report();
+        }
+    }
+
+    // Collapses IDs and usernames so each endpoint gets one entry, e.g. /history/{user}
+    static String template(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query >= 0 ? path.substring(0, query) : path).split("/");
+        if (segments.length == 0 || (segments.length == 1 && segments[0].isEmpty())) {
+            return "/";
+        }
+        StringBuilder template = new StringBuilder();
+        for (int i = 1; i < segments.length; i++) {
+            String segment = segments[i];
+            if (i == 2 && segments[1].equals("history")) {
+                segment = "{user}";
+            } else if (!segment.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+                segment = "{id}";
+            }
+            template.append('/').append(segment);
+        }
+        return template.toString();
+    }
+
+    private void report() {
+        try (Writer out = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writeSnapshot(out);
+        } catch (IOException e) {
+            System.err.println("Error writing metrics file.");
+            e.printStackTrace();
+        }
+    }
+
+    private OperationStats register(OperationStats entry) {
+        if (jmx) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                server.registerMBean(entry, new ObjectName(DOMAIN + ":type=" + entry.getType()
+                        + ",name=" + ObjectName.quote(entry.getName())));
+            } catch (JMException e) {
+                e.printStackTrace(); // Stats still work, they just aren't visible over JMX
+            }
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,194 @@
+package globaldormclient;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Applies for many rooms in one go.
+ * Every room gets a client-allocated application ID and an idempotency key,
+ * and the POSTs are sent asynchronously with a bound on how many are in
+ * flight. Failures that may be transient are retried with the same ID and
+ * key, so a request whose response was lost can't apply twice: a server
+ * that knows the key answers with the original result, and a 409 on a
+ * repeat is checked against the user's history. A 409 on the first send of
+ * an ID means another client holds it, so the room is retried with a new ID.
+ * Applying for a room the same user is already applying for joins the
+ * request in flight instead of sending another.
+ */
+public class MultiApplier {
+    private static final long RETRY_DELAY_MS = 250;
+    private static final int MAX_ID_COLLISIONS = 3;
+    private static final int MAX_RANGE = 1_000; // Guards against a typo like 1-100000
+
+    private final DormApi dormApi;
+    private final ApplicationIdAllocator ids;
+    private final int maxConcurrent;
+    private final ConcurrentHashMap<String, CompletableFuture<ApplyResult>> inFlight = new ConcurrentHashMap<>();
+
+    public MultiApplier(DormApi dormApi, ApplicationIdAllocator ids, int maxConcurrent) {
+        this.dormApi = dormApi;
+        this.ids = ids;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    // Room IDs and ranges such as "3, 7, 12-15", in the order given
+    public static List<Long> parseRoomIds(String selection) {
+        Set<Long> roomIds = new LinkedHashSet<>();
+        for (String part : selection.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) {
+                continue;
+            }
+            int dash = part.indexOf('-');
+            if (dash < 0) {
+                roomIds.add(parseId(part));
+                continue;
+            }
+            long from = parseId(part.substring(0, dash));
+            long to = parseId(part.substring(dash + 1));
+            if (to < from || to - from >= MAX_RANGE) {
+                throw new IllegalArgumentException("Room ranges must run upwards and cover at most " + MAX_RANGE + " rooms: " + part);
+            }
+            for (long roomId = from; roomId <= to; roomId++) {
+                roomIds.add(roomId);
+            }
+        }
+        return new ArrayList<>(roomIds);
+    }
+
+    // Applies for every room once, reporting each result to progress as it finishes; results come back in room order
+    public List<ApplyResult> applyAll(Session session, List<Long> roomIds, int retries, Consumer<ApplyResult> progress) throws IOException {
+        List<CompletableFuture<ApplyResult>> applies = new ArrayList<>(roomIds.size());
+        Semaphore permits = new Semaphore(maxConcurrent);
+
+        try {
+            for (long roomId : new LinkedHashSet<>(roomIds)) { // A room listed twice is applied for once
+                permits.acquire();
+                applies.add(apply(session, roomId, retries)
+                        .handle((result, error) -> error == null
+                                ? result
+                                : new ApplyResult(roomId, 0, -1, null, describe(error), 1, false))
+                        .whenComplete((result, error) -> {
+                            permits.release();
+                            progress.accept(result);
+                        }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Multi-room apply interrupted", e);
+        }
+
+        List<ApplyResult> results = new ArrayList<>(applies.size());
+        for (CompletableFuture<ApplyResult> apply : applies) {
+            results.add(apply.join());
+        }
+        return results;
+    }
+
+    // One room, or the apply already running for this user and room
+    public CompletableFuture<ApplyResult> apply(Session session, long roomId, int retries) {
+        String key = session.getUsername() + "|" + roomId;
+        CompletableFuture<ApplyResult> promise = new CompletableFuture<>();
+        CompletableFuture<ApplyResult> running = inFlight.putIfAbsent(key, promise);
+        if (running != null) {
+            return running;
+        }
+        send(session, roomId, ids.next(), UUID.randomUUID().toString(), 1, 1, retries, 0)
+                .whenComplete((result, error) -> {
+                    inFlight.remove(key, promise);
+                    if (error != null) {
+                        promise.completeExceptionally(error);
+                    } else {
+                        promise.complete(result);
+                    }
+                });
+        return promise;
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private CompletableFuture<ApplyResult> send(Session session, long roomId, long applicationId, String idempotencyKey,
+            int attempt, int sendsOfId, int retriesLeft, int collisions) {
+        return dormApi.applyAsync(session, applicationId, roomId, idempotencyKey)
+                .handle((response, error) -> error == null
+                        ? new ApplyResult(roomId, applicationId, response.statusCode(), response.body(), null, attempt, false)
+                        : new ApplyResult(roomId, applicationId, -1, null, describe(error), attempt, false))
+                .thenCompose(result -> {
+                    if (result.getStatusCode() == 409) {
+                        if (sendsOfId > 1) {
+                            return confirm(session, result); // An earlier send of this ID may have gone through
+                        }
+                        if (collisions < MAX_ID_COLLISIONS) {
+                            return send(session, roomId, ids.next(), UUID.randomUUID().toString(), attempt + 1, 1, retriesLeft, collisions + 1);
+                        }
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    if (retriesLeft <= 0 || !isRetryable(result)) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    Executor delayed = CompletableFuture.delayedExecutor(RETRY_DELAY_MS * attempt, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.runAsync(() -> { }, delayed)
+                            .thenCompose(ignored -> send(session, roomId, applicationId, idempotencyKey,
+                                    attempt + 1, sendsOfId + 1, retriesLeft - 1, collisions));
+                });
+    }
+
+    // Treats a 409 as success when the user's history already holds this exact application
+    private CompletableFuture<ApplyResult> confirm(Session session, ApplyResult conflict) {
+        return dormApi.historyAsync(session).handle((response, error) -> {
+            if (error != null || response.statusCode() != 200) {
+                return conflict;
+            }
+            try (JsonReader reader = new JsonReader(new StringReader(response.body()))) {
+                for (Application application : JsonAdapters.readApplications(reader)) {
+                    if (application.getApplicationId() == conflict.getApplicationId() && application.getRoomId() == conflict.getRoomId()) {
+                        return new ApplyResult(conflict.getRoomId(), conflict.getApplicationId(), conflict.getStatusCode(),
+                                conflict.getBody(), null, conflict.getAttempts(), true);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // Unreadable history, report the conflict as it is
+            }
+            return conflict;
+        });
+    }
+
+    // Other client errors won't change on a retry
+    private static boolean isRetryable(ApplyResult result) {
+        int status = result.getStatusCode();
+        return status == -1 || status == 429 || status >= 500;
+    }
+
+    private static long parseId(String value) {
+        try {
+            long id = Long.parseLong(value.trim());
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Room IDs must be positive numbers: " + value.trim());
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
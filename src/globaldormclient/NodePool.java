@@ -0,0 +1,137 @@
+package globaldormclient;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The GlobalDorm backend nodes a transport can send to, set with
+ * -Dglobaldorm.nodes=http://host1:8080,http://host2:8080 (origins only,
+ * the path comes from the base URL). Each request goes to the healthy node
+ * with the lowest latency average times requests in flight. Nodes that keep
+ * failing drop out of rotation, and a background HEAD of the catalogue on
+ * every node brings them back once they answer again.
+ */
+public class NodePool implements Closeable {
+    private final List<BackendNode> nodes;
+    private final AtomicInteger rotation = new AtomicInteger(); // Spreads ties instead of always picking the first node
+    private ScheduledExecutorService healthChecks;
+
+    public NodePool(List<String> origins) {
+        if (origins.isEmpty()) {
+            throw new IllegalArgumentException("At least one node is required");
+        }
+        this.nodes = new ArrayList<>();
+        for (String origin : origins) {
+            nodes.add(new BackendNode(origin));
+        }
+    }
+
+    // Nodes from globaldorm.nodes, or just the base URL's own host
+    public static NodePool fromSystemProperties(String baseUrl) {
+        List<String> origins = new ArrayList<>();
+        for (String origin : System.getProperty("globaldorm.nodes", "").split(",")) {
+            if (!origin.isBlank()) {
+                origins.add(origin.trim());
+            }
+        }
+        if (origins.isEmpty()) {
+            origins.add(baseUrl);
+        }
+        return new NodePool(origins);
+    }
+
+    public List<BackendNode> getNodes() {
+        return nodes;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    // Best node not yet tried; unhealthy nodes only when no healthy one is left, tried ones only when nothing else is
+    public BackendNode choose(Set<BackendNode> tried) {
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        BackendNode best = best(tried);
+        return best != null ? best : best(Set.of());
+    }
+
+    // True when a healthy node that hasn't been tried yet could take a request that failed on the others
+    public boolean canFailOver(Set<BackendNode> tried) {
+        for (BackendNode node : nodes) {
+            if (!tried.contains(node) && node.isHealthy()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BackendNode best(Set<BackendNode> tried) {
+        BackendNode best = null;
+        double bestScore = Double.MAX_VALUE;
+        boolean bestHealthy = false;
+        int start = Math.floorMod(rotation.getAndIncrement(), nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            BackendNode node = nodes.get((start + i) % nodes.size());
+            if (tried.contains(node)) {
+                continue;
+            }
+            boolean healthy = node.isHealthy();
+            double score = node.score();
+            if (best == null || (healthy && !bestHealthy) || (healthy == bestHealthy && score < bestScore)) {
+                best = node;
+                bestScore = score;
+                bestHealthy = healthy;
+            }
+        }
+        return best;
+    }
+
+    // Probes every node with a HEAD of the catalogue; anything below 500 counts as up, and its time is a latency sample
+    public synchronized void startHealthChecks(HttpClient client, String basePath, Duration interval) {
+        if (healthChecks != null || nodes.size() == 1) {
+            return;
+        }
+        healthChecks = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "node-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(() -> {
+            for (BackendNode node : nodes) {
+                HttpRequest probe = HttpRequest.newBuilder(URI.create(node.getOrigin() + basePath))
+                        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                        .timeout(interval)
+                        .build();
+                long sentAt = System.nanoTime();
+                client.sendAsync(probe, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                    boolean up = error == null && response.statusCode() < 500;
+                    if (up) {
+                        node.sample((System.nanoTime() - sentAt) / 1_000);
+                    }
+                    node.setHealthy(up);
+                });
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+            healthChecks = null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package globaldormclient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a latency histogram for one HTTP endpoint or user-store
+ * operation. Recording is lock-free so it can sit on every call.
+ */
+public class OperationStats implements OperationStatsMBean {
+    private final String type;
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentSkipListMap<>();
+
+    public OperationStats(String type, String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // A completed call; status is 0 for operations that aren't HTTP
+    public void record(long nanos, int status, long in, long out) {
+        latency.recordNanos(nanos);
+        bytesIn.add(in);
+        bytesOut.add(out);
+        if (status > 0) {
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+    }
+
+    // A call that failed without a response
+    public void recordError(long nanos, long out) {
+        latency.recordNanos(nanos);
+        bytesOut.add(out);
+        errors.increment();
+    }
+
+    public Map<Integer, Long> getStatuses() {
+        Map<Integer, Long> counts = new ConcurrentSkipListMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMeanMicros();
+    }
+
+    @Override
+    public long getP50Micros() {
+        return latency.percentile(50);
+    }
+
+    @Override
+    public long getP95Micros() {
+        return latency.percentile(95);
+    }
+
+    @Override
+    public long getP99Micros() {
+        return latency.percentile(99);
+    }
+
+    @Override
+    public String getStatusCounts() {
+        StringBuilder counts = new StringBuilder();
+        getStatuses().forEach((status, count) -> {
+            if (counts.length() > 0) {
+                counts.append(", ");
+            }
+            counts.append(status).append('=').append(count);
+        });
+        return counts.toString();
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.reset();
+        bytesIn.reset();
+        bytesOut.reset();
+        statuses.clear();
+    }
+}
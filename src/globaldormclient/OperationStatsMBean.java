@@ -0,0 +1,28 @@
+package globaldormclient;
+
+/**
+ * JMX view of one instrumented operation. Latencies are in microseconds and
+ * every counter is cumulative since start-up or the last reset.
+ */
+public interface OperationStatsMBean {
+    long getCount();
+
+    long getErrors();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP95Micros();
+
+    long getP99Micros();
+
+    // Responses per HTTP status, e.g. "200=41, 404=2"
+    String getStatusCounts();
+
+    void reset();
+}
@@ -0,0 +1,134 @@
+package globaldormclient;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.stream.IntStream;
+
+/**
+ * SHA-256 password hashing and verification without per-call garbage.
+ * Each thread reuses its own digest, UTF-8 encoder and buffers; hex goes
+ * through a lookup table, and verification compares raw digest bytes
+ * against the stored hex in constant time instead of building a new String.
+ */
+public final class PasswordHasher {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int DIGEST_LENGTH = 32;
+    private static final int PARALLEL_BATCH = 1024; // Smaller batches aren't worth the fork/join overhead
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private static final class State {
+        final MessageDigest digest;
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)       // Same '?' replacement as String.getBytes
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final byte[] hash = new byte[DIGEST_LENGTH];
+        final char[] hex = new char[DIGEST_LENGTH * 2];
+        ByteBuffer input = ByteBuffer.allocate(256);
+
+        State() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+
+    private PasswordHasher() {
+    }
+
+    // Lower-case hex SHA-256 of the UTF-8 password, the format stored in users.json
+    public static String hash(String password) {
+        State state = STATE.get();
+        byte[] hash = digest(state, password);
+        char[] hex = state.hex;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0x0f];
+            hex[i * 2 + 1] = HEX[hash[i] & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    // Constant-time check of a password against a stored hex hash; a null hash never matches
+    public static boolean verify(String password, String storedHex) {
+        byte[] hash = digest(STATE.get(), password);
+        if (storedHex == null || storedHex.length() != DIGEST_LENGTH * 2) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int high = nibble(storedHex.charAt(i * 2));
+            int low = nibble(storedHex.charAt(i * 2 + 1));
+            diff |= ((high | low) >>> 31);                       // Any non-hex character fails the check
+            diff |= (hash[i] & 0xff) ^ ((high << 4) | low) & 0xff;
+        }
+        return diff == 0;
+    }
+
+    // Verifies many password/hash pairs at once, in parallel for large batches
+    public static boolean[] verifyAll(String[] passwords, String[] storedHashes) {
+        if (passwords.length != storedHashes.length) {
+            throw new IllegalArgumentException("Passwords and hashes must be the same length");
+        }
+        boolean[] results = new boolean[passwords.length];
+        IntStream indexes = IntStream.range(0, passwords.length);
+        if (passwords.length >= PARALLEL_BATCH) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> results[i] = verify(passwords[i], storedHashes[i]));
+        return results;
+    }
+
+    // Hashes many passwords at once, in parallel for large batches
+    public static String[] hashAll(String[] passwords) {
+        String[] hashes = new String[passwords.length];
+        IntStream indexes = IntStream.range(0, passwords.length);
+        if (passwords.length >= PARALLEL_BATCH) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> hashes[i] = hash(passwords[i]));
+        return hashes;
+    }
+
+    private static byte[] digest(State state, String password) {
+        int maxBytes = password.length() * 3; // UTF-8 never needs more than 3 bytes per char
+        if (state.input.capacity() < maxBytes) {
+            state.input = ByteBuffer.allocate(Math.max(maxBytes, state.input.capacity() * 2));
+        }
+        ByteBuffer input = state.input;
+        input.clear();
+        state.encoder.reset();
+        state.encoder.encode(CharBuffer.wrap(password), input, true);
+        state.encoder.flush(input);
+        input.flip();
+
+        MessageDigest digest = state.digest;
+        digest.update(input);
+        try {
+            digest.digest(state.hash, 0, DIGEST_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Error hashing password", e);
+        }
+        return state.hash;
+    }
+
+    // Value of a hex digit, or -1 for anything else
+    private static int nibble(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
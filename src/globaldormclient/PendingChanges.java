@@ -0,0 +1,54 @@
+package globaldormclient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PendingChanges {
+    private final List<Application> added = new ArrayList<>();
+    private final List<Application> changed = new ArrayList<>();
+    private final List<Application> removed = new ArrayList<>();
+    private final int pendingCount;
+    private final boolean unchanged; // The server confirmed nothing changed
+
+    public PendingChanges(List<Application> added, List<Application> changed, List<Application> removed, int pendingCount) {
+        this.added.addAll(added);
+        this.changed.addAll(changed);
+        this.removed.addAll(removed);
+        this.pendingCount = pendingCount;
+        this.unchanged = false;
+    }
+
+    private PendingChanges(int pendingCount) {
+        this.pendingCount = pendingCount;
+        this.unchanged = true;
+    }
+
+    public static PendingChanges unchanged(int pendingCount) {
+        return new PendingChanges(pendingCount);
+    }
+
+    public List<Application> getAdded() {
+        return added;
+    }
+
+    public List<Application> getChanged() {
+        return changed;
+    }
+
+    public List<Application> getRemoved() {
+        return removed;
+    }
+
+    // Size of the local pending view after the sync
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+}
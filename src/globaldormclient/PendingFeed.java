@@ -0,0 +1,214 @@
+package globaldormclient;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local view of the pending applications, kept up to date incrementally.
+ * When the server hands out an X-Pending-Cursor header, later polls ask only
+ * for what changed since that cursor; entries that come back no longer
+ * pending are dropped. Otherwise the full list is re-read (a 304 if the
+ * ETag still matches) and diffed against the previous snapshot by
+ * application ID. Either way a sync reports only what is new, changed or gone.
+ * With a snapshot store the view, ETag and cursor survive restarts, so the
+ * first sync of a new session is incremental too, and the saved view can be
+ * shown while the backend is down.
+ */
+public class PendingFeed {
+    private static final String PENDING_PATH = "/applications/pending";
+    private static final String CURSOR_HEADER = "X-Pending-Cursor";
+    private static final String SNAPSHOT_KEY = "pending";
+
+    private final HttpTransport transport;
+    private final SnapshotStore store; // Null when running without offline copies
+    private final Map<Long, Application> snapshot = new LinkedHashMap<>();
+    private String etag;
+    private String cursor; // Null until the server offers one
+    private long syncedAt = -1;
+    private boolean stale = false;
+
+    public PendingFeed(HttpTransport transport) {
+        this(transport, null);
+    }
+
+    public PendingFeed(HttpTransport transport, SnapshotStore store) {
+        this.transport = transport;
+        this.store = store;
+        if (store != null) {
+            restore(store.load(SNAPSHOT_KEY));
+        }
+    }
+
+    public synchronized PendingChanges sync() throws IOException {
+        try {
+            PendingChanges changes = fetchChanges();
+            syncedAt = System.currentTimeMillis();
+            stale = false;
+            if (store != null && !changes.isUnchanged()) {
+                save();
+            }
+            return changes;
+        } catch (IOException e) {
+            stale = snapshot.size() > 0 || syncedAt >= 0;
+            throw e;
+        }
+    }
+
+    // True when the view is a saved copy that the last sync couldn't refresh
+    public synchronized boolean isStale() {
+        return stale;
+    }
+
+    // When the view was last confirmed by the server, -1 if never
+    public synchronized long getSyncedAt() {
+        return syncedAt;
+    }
+
+    private PendingChanges fetchChanges() throws IOException {
+        if (cursor != null) {
+            HttpResponse<InputStream> response = fetch(PENDING_PATH + "?since=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            if (response.statusCode() != 400 && response.statusCode() != 410) {
+                return apply(response, true);
+            }
+            // The server no longer recognises the cursor, start over from a full listing
+            response.body().close();
+            cursor = null;
+            etag = null;
+        }
+        return apply(fetch(PENDING_PATH), false);
+    }
+
+    public synchronized List<Application> getPending() {
+        return new ArrayList<>(snapshot.values());
+    }
+
+    // Drops an entry this client has already dealt with so it isn't reported as removed later
+    public synchronized void forget(long applicationId) {
+        snapshot.remove(applicationId);
+    }
+
+    private HttpResponse<InputStream> fetch(String path) throws IOException {
+        HttpRequest.Builder request = transport.request(path).GET();
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        return transport.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private PendingChanges apply(HttpResponse<InputStream> response, boolean delta) throws IOException {
+        List<Application> added = new ArrayList<>();
+        List<Application> changed = new ArrayList<>();
+        List<Application> removed = new ArrayList<>();
+
+        try (PushbackReader body = new PushbackReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            if (response.statusCode() == 304) {
+                return PendingChanges.unchanged(snapshot.size());
+            }
+            if (response.statusCode() != 200) {
+                throw new HttpStatusException("Unable to fetch pending applications.", response.statusCode());
+            }
+
+            List<Application> received = new ArrayList<>();
+            if (!isBlank(body)) { // An empty 200 means nothing is pending; JsonReader would fail on it
+                try (JsonReader reader = new JsonReader(body)) {
+                    received = JsonAdapters.readApplications(reader);
+                } catch (IllegalStateException | NumberFormatException e) {
+                    throw new IOException("Error while parsing pending applications", e);
+                }
+            }
+
+            Map<Long, Application> seen = new LinkedHashMap<>();
+            for (Application application : received) {
+                long id = application.getApplicationId();
+                Application previous = snapshot.get(id);
+                if (application.getStatus() != null && !application.getStatus().equals("pending")) {
+                    // Only deltas carry non-pending entries, they mean the application left the queue
+                    if (previous != null) {
+                        snapshot.remove(id);
+                        removed.add(application);
+                    }
+                    continue;
+                }
+                seen.put(id, application);
+                if (previous == null) {
+                    added.add(application);
+                } else if (!previous.equals(application)) {
+                    changed.add(application);
+                }
+                snapshot.put(id, application);
+            }
+
+            if (!delta) {
+                // A full listing is authoritative, anything missing from it is gone
+                snapshot.values().removeIf(application -> {
+                    if (seen.containsKey(application.getApplicationId())) {
+                        return false;
+                    }
+                    removed.add(application);
+                    return true;
+                });
+            }
+        }
+
+        etag = response.headers().firstValue("ETag").orElse(null);
+        cursor = response.headers().firstValue(CURSOR_HEADER).orElse(cursor);
+        return new PendingChanges(added, changed, removed, snapshot.size());
+    }
+
+    // Skips leading whitespace, true if nothing else follows
+    private static boolean isBlank(PushbackReader body) throws IOException {
+        int c;
+        do {
+            c = body.read();
+        } while (c != -1 && Character.isWhitespace(c));
+        if (c == -1) {
+            return true;
+        }
+        body.unread(c);
+        return false;
+    }
+
+    private void restore(Snapshot saved) {
+        if (saved == null) {
+            return;
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(saved.getBodyAsString()))) {
+            for (Application application : JsonAdapters.readApplications(reader)) {
+                snapshot.put(application.getApplicationId(), application);
+            }
+            etag = saved.getEtag();
+            cursor = saved.getCursor();
+            syncedAt = saved.getSavedAt();
+            stale = true;
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            snapshot.clear(); // Start from a full listing instead
+        }
+    }
+
+    private void save() throws IOException {
+        StringWriter body = new StringWriter();
+        JsonWriter writer = new JsonWriter(body);
+        writer.beginArray();
+        for (Application application : snapshot.values()) {
+            JsonAdapters.APPLICATION.write(writer, application);
+        }
+        writer.endArray();
+        writer.flush();
+        store.save(SNAPSHOT_KEY, new Snapshot(body.toString().getBytes(StandardCharsets.UTF_8), etag, null, cursor, syncedAt));
+    }
+}
@@ -0,0 +1,140 @@
+package globaldormclient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Offline postcode centroids held in compact parallel arrays: sorted postcode
+ * keys plus latitude/longitude doubles, searched with a binary search.
+ * Loaded from a CSV of "postcode,latitude,longitude" lines; a header line and
+ * any extra columns are ignored.
+ */
+public class PostcodeIndex {
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private final String[] keys;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    private PostcodeIndex(String[] keys, double[] latitudes, double[] longitudes) {
+        this.keys = keys;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+    }
+
+    public static PostcodeIndex load(Path csv) throws IOException {
+        String[] keys = new String[1024];
+        double[] lats = new double[1024];
+        double[] lons = new double[1024];
+        int count = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 3) {
+                    continue;
+                }
+                double lat;
+                double lon;
+                try {
+                    lat = Double.parseDouble(parts[1].trim());
+                    lon = Double.parseDouble(parts[2].trim());
+                } catch (NumberFormatException e) {
+                    continue; // Header or malformed line
+                }
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, count * 2);
+                    lats = Arrays.copyOf(lats, count * 2);
+                    lons = Arrays.copyOf(lons, count * 2);
+                }
+                keys[count] = normalize(parts[0]);
+                lats[count] = lat;
+                lons[count] = lon;
+                count++;
+            }
+        }
+
+        // Most datasets are already sorted; only pay for the sort when they aren't
+        if (!isSorted(keys, count)) {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            String[] unsortedKeys = keys;
+            Arrays.sort(order, (a, b) -> unsortedKeys[a].compareTo(unsortedKeys[b]));
+            String[] sortedKeys = new String[count];
+            double[] sortedLats = new double[count];
+            double[] sortedLons = new double[count];
+            for (int i = 0; i < count; i++) {
+                sortedKeys[i] = keys[order[i]];
+                sortedLats[i] = lats[order[i]];
+                sortedLons[i] = lons[order[i]];
+            }
+            return new PostcodeIndex(sortedKeys, sortedLats, sortedLons);
+        }
+        return new PostcodeIndex(Arrays.copyOf(keys, count), Arrays.copyOf(lats, count), Arrays.copyOf(lons, count));
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    // Slot of the postcode, falling back to its outward code (district), or -1
+    public int indexOf(String postcode) {
+        String key = normalize(postcode);
+        int slot = Arrays.binarySearch(keys, key);
+        if (slot < 0 && key.length() > 3) {
+            slot = Arrays.binarySearch(keys, key.substring(0, key.length() - 3));
+        }
+        return slot >= 0 ? slot : -1;
+    }
+
+    // Great-circle distance in meters between two postcodes, or -1 if either is unknown
+    public double distance(String from, String to) {
+        int a = indexOf(from);
+        int b = indexOf(to);
+        if (a < 0 || b < 0) {
+            return -1;
+        }
+        return haversine(latitudes[a], longitudes[a], latitudes[b], longitudes[b]);
+    }
+
+    // Distances from one postcode to many, reusing the origin lookup; unknown entries are -1
+    public double[] distances(String from, String[] to) {
+        double[] result = new double[to.length];
+        int a = indexOf(from);
+        for (int i = 0; i < to.length; i++) {
+            int b = a < 0 || to[i] == null ? -1 : indexOf(to[i]);
+            result[i] = b < 0 ? -1 : haversine(latitudes[a], longitudes[a], latitudes[b], longitudes[b]);
+        }
+        return result;
+    }
+
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    // Postcodes are compared upper-case with spaces removed, e.g. "SW1A1AA"
+    private static String normalize(String postcode) {
+        return postcode.replace(" ", "").replace("\"", "").trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean isSorted(String[] keys, int count) {
+        for (int i = 1; i < count; i++) {
+            if (keys[i - 1].compareTo(keys[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,169 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Postcode to room distances.
+ * With a local postcode dataset, straight-line distances are computed
+ * in-process; the /proximity route distance is used when exact road distance
+ * is asked for or the postcodes aren't in the dataset. Every remote
+ * (postcode, room) distance is memoized, and ranking fans the lookups out
+ * asynchronously with a bound on how many are in flight at once.
+ */
+public class ProximityService {
+    private final HttpTransport transport;
+    private final RoomCache roomCache;
+    private final int maxConcurrent;
+    private final PostcodeIndex postcodes; // Null when no offline dataset is loaded
+    private final ConcurrentHashMap<String, Double> distances = new ConcurrentHashMap<>();
+
+    public ProximityService(HttpTransport transport, RoomCache roomCache, int maxConcurrent) {
+        this(transport, roomCache, maxConcurrent, null);
+    }
+
+    public ProximityService(HttpTransport transport, RoomCache roomCache, int maxConcurrent, PostcodeIndex postcodes) {
+        this.transport = transport;
+        this.roomCache = roomCache;
+        this.maxConcurrent = maxConcurrent;
+        this.postcodes = postcodes;
+    }
+
+    public boolean hasLocalData() {
+        return postcodes != null;
+    }
+
+    // Local great-circle distance unless exact road distance is requested or unavailable
+    public double distanceTo(String postcode, long roomId, boolean exact) throws IOException {
+        if (!exact && postcodes != null) {
+            Room room = roomCache.findRoom(roomId);
+            if (room != null && room.getPostcode() != null) {
+                double distance = postcodes.distance(postcode, room.getPostcode());
+                if (distance >= 0) {
+                    return distance;
+                }
+            }
+        }
+        return distanceTo(postcode, roomId);
+    }
+
+    // Distance in meters, or -1 if the response had no route
+    public double distanceTo(String postcode, long roomId) throws IOException {
+        try {
+            return distanceAsync(postcode, roomId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Double> distanceAsync(String postcode, long roomId) {
+        String normalized = normalize(postcode);
+        String key = normalized + "|" + roomId;
+        Double known = distances.get(key);
+        if (known != null) {
+            return CompletableFuture.completedFuture(known);
+        }
+        String path = "/proximity?userPostcode=" + URLEncoder.encode(normalized, StandardCharsets.UTF_8) + "&roomId=" + roomId;
+        return transport.getAsync(path).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new CompletionException(new HttpStatusException("Unable to fetch proximity data.", response.statusCode()));
+            }
+            double distance = parseDistanceFromResponse(response.body());
+            if (distance >= 0) {
+                distances.put(key, distance);
+            }
+            return distance;
+        });
+    }
+
+    public List<RoomDistance> rankRooms(String postcode, int topK, boolean exact) throws IOException {
+        if (!exact && postcodes != null && postcodes.indexOf(postcode) >= 0) {
+            return rankRoomsLocally(postcode, topK);
+        }
+        return rankRooms(postcode, topK);
+    }
+
+    // Ranks every listed room nearest-first by route distance; topK <= 0 returns them all
+    public List<RoomDistance> rankRooms(String postcode, int topK) throws IOException {
+        List<Room> rooms = roomCache.getRooms();
+        List<CompletableFuture<RoomDistance>> lookups = new ArrayList<>(rooms.size());
+        Semaphore permits = new Semaphore(maxConcurrent);
+
+        try {
+            for (Room room : rooms) {
+                permits.acquire();
+                lookups.add(distanceAsync(postcode, room.getId())
+                        .handle((distance, error) -> {
+                            permits.release();
+                            // Rooms whose lookup failed are left out of the ranking
+                            return error == null && distance >= 0 ? new RoomDistance(room, distance) : null;
+                        }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Ranking interrupted", e);
+        }
+
+        List<RoomDistance> ranked = new ArrayList<>(lookups.size());
+        for (CompletableFuture<RoomDistance> lookup : lookups) {
+            RoomDistance result = lookup.join();
+            if (result != null) {
+                ranked.add(result);
+            }
+        }
+        return sortAndLimit(ranked, topK);
+    }
+
+    // Straight-line ranking without any network calls; rooms missing from the dataset are skipped
+    private List<RoomDistance> rankRoomsLocally(String postcode, int topK) throws IOException {
+        List<Room> rooms = roomCache.getRooms();
+        String[] roomPostcodes = new String[rooms.size()];
+        for (int i = 0; i < roomPostcodes.length; i++) {
+            roomPostcodes[i] = rooms.get(i).getPostcode();
+        }
+        double[] meters = postcodes.distances(postcode, roomPostcodes);
+
+        List<RoomDistance> ranked = new ArrayList<>(rooms.size());
+        for (int i = 0; i < meters.length; i++) {
+            if (meters[i] >= 0) {
+                ranked.add(new RoomDistance(rooms.get(i), meters[i]));
+            }
+        }
+        return sortAndLimit(ranked, topK);
+    }
+
+    private static List<RoomDistance> sortAndLimit(List<RoomDistance> ranked, int topK) {
+        ranked.sort(Comparator.comparingDouble(RoomDistance::getDistanceMeters));
+        return topK > 0 && ranked.size() > topK ? new ArrayList<>(ranked.subList(0, topK)) : ranked;
+    }
+
+    public void clear() {
+        distances.clear();
+    }
+
+    static double parseDistanceFromResponse(String jsonResponse) {
+        try {
+            // Stream just routes[0].distance (meters) out of the response
+            return JsonAdapters.readDistance(jsonResponse);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            e.printStackTrace();
+        }
+        return -1; // Return -1 if parsing fails
+    }
+
+    private static String normalize(String postcode) {
+        return postcode.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,90 @@
+package globaldormclient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Timeouts, retry, circuit breaker and hedging settings for HttpTransport.
+ * Read timeouts can be set per endpoint by path template, for example
+ * -Dglobaldorm.readTimeouts=/proximity=20000,/weather/room=3000 (milliseconds).
+ */
+public class ResiliencePolicy {
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Map<String, Duration> readTimeouts;
+    private final int maxRetries;
+    private final long backoffBaseMillis;
+    private final long backoffCapMillis;
+    private final int breakerFailures;
+    private final long breakerOpenMillis;
+    private final boolean hedging;
+
+    public ResiliencePolicy(Duration connectTimeout, Duration readTimeout, Map<String, Duration> readTimeouts, int maxRetries,
+            long backoffBaseMillis, long backoffCapMillis, int breakerFailures, long breakerOpenMillis, boolean hedging) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.readTimeouts = new HashMap<>(readTimeouts);
+        this.maxRetries = maxRetries;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffCapMillis = backoffCapMillis;
+        this.breakerFailures = breakerFailures;
+        this.breakerOpenMillis = breakerOpenMillis;
+        this.hedging = hedging;
+    }
+
+    public static ResiliencePolicy fromSystemProperties() {
+        Map<String, Duration> readTimeouts = new HashMap<>();
+        String overrides = System.getProperty("globaldorm.readTimeouts", "");
+        for (String entry : overrides.split(",")) {
+            int split = entry.lastIndexOf('=');
+            if (split > 0) {
+                readTimeouts.put(entry.substring(0, split).trim(), Duration.ofMillis(Long.parseLong(entry.substring(split + 1).trim())));
+            }
+        }
+        return new ResiliencePolicy(
+                Duration.ofMillis(Long.getLong("globaldorm.connectTimeoutMs", 5_000)),
+                Duration.ofMillis(Long.getLong("globaldorm.readTimeoutMs", 10_000)),
+                readTimeouts,
+                Integer.getInteger("globaldorm.retries", 2),
+                Long.getLong("globaldorm.backoffMs", 100),
+                Long.getLong("globaldorm.backoffCapMs", 2_000),
+                Integer.getInteger("globaldorm.breakerFailures", 5),
+                Long.getLong("globaldorm.breakerOpenMs", 10_000),
+                Boolean.getBoolean("globaldorm.hedge"));
+    }
+
+    // Timeouts only: no retries, hedging or breaker, so measurements see every failure
+    public static ResiliencePolicy timeoutsOnly() {
+        ResiliencePolicy defaults = fromSystemProperties();
+        return new ResiliencePolicy(defaults.connectTimeout, defaults.readTimeout, defaults.readTimeouts,
+                0, 0, 0, Integer.MAX_VALUE, 0, false);
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration readTimeout(String endpoint) {
+        return readTimeouts.getOrDefault(endpoint, readTimeout);
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    // Full jitter: a random delay up to the capped exponential backoff for this retry (1-based)
+    public long backoffMillis(int retry) {
+        long ceiling = Math.min(backoffCapMillis, backoffBaseMillis << Math.min(retry - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public CircuitBreaker newCircuitBreaker() {
+        return new CircuitBreaker(breakerFailures, breakerOpenMillis);
+    }
+
+    public boolean isHedging() {
+        return hedging;
+    }
+}
@@ -0,0 +1,133 @@
+package globaldormclient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Room {
+    private long id;
+    private String name;
+    private String city;
+    private String county;
+    private String postcode;
+    private boolean furnished;
+    private List<String> amenities = new ArrayList<>();
+    private boolean liveInLandlord;
+    private int sharedWith;
+    private boolean billsIncluded;
+    private boolean bathroomShared;
+    private double pricePerMonth;
+    private String availabilityDate;
+    private List<String> spokenLanguages = new ArrayList<>();
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getCounty() {
+        return county;
+    }
+
+    public void setCounty(String county) {
+        this.county = county;
+    }
+
+    public String getPostcode() {
+        return postcode;
+    }
+
+    public void setPostcode(String postcode) {
+        this.postcode = postcode;
+    }
+
+    public boolean isFurnished() {
+        return furnished;
+    }
+
+    public void setFurnished(boolean furnished) {
+        this.furnished = furnished;
+    }
+
+    public List<String> getAmenities() {
+        return amenities;
+    }
+
+    public void setAmenities(List<String> amenities) {
+        this.amenities = amenities;
+    }
+
+    public boolean isLiveInLandlord() {
+        return liveInLandlord;
+    }
+
+    public void setLiveInLandlord(boolean liveInLandlord) {
+        this.liveInLandlord = liveInLandlord;
+    }
+
+    public int getSharedWith() {
+        return sharedWith;
+    }
+
+    public void setSharedWith(int sharedWith) {
+        this.sharedWith = sharedWith;
+    }
+
+    public boolean isBillsIncluded() {
+        return billsIncluded;
+    }
+
+    public void setBillsIncluded(boolean billsIncluded) {
+        this.billsIncluded = billsIncluded;
+    }
+
+    public boolean isBathroomShared() {
+        return bathroomShared;
+    }
+
+    public void setBathroomShared(boolean bathroomShared) {
+        this.bathroomShared = bathroomShared;
+    }
+
+    public double getPricePerMonth() {
+        return pricePerMonth;
+    }
+
+    public void setPricePerMonth(double pricePerMonth) {
+        this.pricePerMonth = pricePerMonth;
+    }
+
+    public String getAvailabilityDate() {
+        return availabilityDate;
+    }
+
+    public void setAvailabilityDate(String availabilityDate) {
+        this.availabilityDate = availabilityDate;
+    }
+
+    public List<String> getSpokenLanguages() {
+        return spokenLanguages;
+    }
+
+    public void setSpokenLanguages(List<String> spokenLanguages) {
+        this.spokenLanguages = spokenLanguages;
+    }
+}
@@ -0,0 +1,296 @@
+package globaldormclient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Client-side cache of room responses keyed by request path.
+ * Entries are served as-is until the TTL runs out, then revalidated with
+ * If-None-Match / If-Modified-Since so an unchanged catalogue costs a 304
+ * instead of a full download. Downloads run outside the cache's lock, and
+ * concurrent reads of the same path share one request.
+ *
+ * Paged paths are answered from the full catalogue while it is fresh, so
+ * paging through rooms that are already cached costs no request.
+ *
+ * With a snapshot store, every fresh catalogue is also saved to disk. After a
+ * restart the saved copy answers reads straight away while a background fetch
+ * replaces it, and it stands in whenever the backend can't be reached.
+ */
+public class RoomCache {
+    private static final String CATALOGUE_PATH = "";
+    private static final String SNAPSHOT_KEY = "rooms";
+
+    private final HttpTransport transport;
+    private final SnapshotStore store; // Null when running without offline copies
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, CompletableFuture<Entry>> downloads = new HashMap<>(); // In-flight fetch per path
+    private final ExecutorService refresher;
+    private long ttlMillis;
+    private Entry offline;                   // Last good catalogue from disk or the server
+    private volatile long staleSince = -1;   // Saved time of the offline copy being served, -1 when live
+    private boolean refreshing;
+    private Entry indexedEntry;          // Catalogue entry the index was built from
+    private Map<Long, Room> roomsById;
+    private RoomIndex roomIndex;         // Query indexes, built on first search of each catalogue
+
+    private static class Entry {
+        final byte[] body;
+        final String etag;
+        final String lastModified;
+        long fetchedAt;
+
+        Entry(byte[] body, String etag, String lastModified, long fetchedAt) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    public RoomCache(HttpTransport transport, Duration ttl) {
+        this(transport, ttl, null);
+    }
+
+    public RoomCache(HttpTransport transport, Duration ttl, SnapshotStore store) {
+        this.transport = transport;
+        this.ttlMillis = ttl.toMillis();
+        this.store = store;
+        this.refresher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "room-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Loads the saved catalogue so the first read is instant, and fetches a live one in the background
+    public synchronized void loadSnapshot() {
+        if (store == null || offline != null) {
+            return;
+        }
+        Snapshot snapshot = store.load(SNAPSHOT_KEY);
+        if (snapshot != null) {
+            offline = new Entry(snapshot.getBody(), snapshot.getEtag(), snapshot.getLastModified(), 0);
+            staleSince = snapshot.getSavedAt();
+            refreshInBackground();
+        }
+    }
+
+    // True while reads are being answered from a saved copy instead of the server
+    public boolean isStale() {
+        return staleSince >= 0;
+    }
+
+    public long getStaleSince() {
+        return staleSince;
+    }
+
+    public synchronized void setTtl(Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    // Drops every cached response so the next read goes to the server
+    public synchronized void invalidate() {
+        entries.clear();
+        indexedEntry = null;
+        roomsById = null;
+        roomIndex = null;
+    }
+
+    // Opens the (possibly cached) response body for a rooms path
+    public InputStream open(String path) throws IOException {
+        return new ByteArrayInputStream(fetch(path).body);
+    }
+
+    // Looks a room up in the full catalogue, returns null if it isn't listed
+    public Room findRoom(long roomId) throws IOException {
+        return index(fetch(CATALOGUE_PATH)).get(roomId);
+    }
+
+    // Every room in the full catalogue, in catalogue order
+    public List<Room> getRooms() throws IOException {
+        return new ArrayList<>(index(fetch(CATALOGUE_PATH)).values());
+    }
+
+    // Secondary indexes over the full catalogue for local searches
+    public RoomIndex getIndex() throws IOException {
+        Entry entry = fetch(CATALOGUE_PATH);
+        synchronized (this) {
+            Map<Long, Room> rooms = index(entry);
+            if (roomIndex == null) {
+                roomIndex = new RoomIndex(new ArrayList<>(rooms.values()));
+            }
+            return roomIndex;
+        }
+    }
+
+    // Rooms by ID for a catalogue entry, parsed once per entry; the map is never changed after it's built
+    private synchronized Map<Long, Room> index(Entry entry) throws IOException {
+        if (entry != indexedEntry) {
+            Map<Long, Room> index = new LinkedHashMap<>();
+            try (RoomStream stream = new RoomStream(new ByteArrayInputStream(entry.body))) {
+                while (stream.hasNext()) {
+                    Room room = stream.next();
+                    index.put(room.getId(), room);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (IllegalStateException | NumberFormatException e) { // Same handling as RoomPager
+                throw new IOException("Unexpected room data in response", e);
+            }
+            roomsById = index;
+            roomIndex = null;
+            indexedEntry = entry;
+        }
+        return roomsById;
+    }
+
+    // Fresh entry for a path; the first caller downloads, others wait for its result instead of sending their own
+    private Entry fetch(String path) throws IOException {
+        long now = System.currentTimeMillis();
+        Entry cached;
+        CompletableFuture<Entry> download;
+        CompletableFuture<Entry> running;
+        synchronized (this) {
+            cached = entries.get(path);
+            if (cached != null && now - cached.fetchedAt < ttlMillis) {
+                return cached;
+            }
+            Entry catalogue = entries.get(CATALOGUE_PATH);
+            if (!path.equals(CATALOGUE_PATH) && catalogue != null && now - catalogue.fetchedAt < ttlMillis) {
+                return catalogue; // A fresh catalogue, e.g. from the login prefetch, answers pages too; RoomPager pages it locally
+            }
+            if (cached == null && offline != null && refreshing) {
+                return offline; // Paged paths get the whole catalogue, RoomPager pages it locally
+            }
+            if (cached == null && path.equals(CATALOGUE_PATH)) {
+                cached = offline; // Revalidate the last good copy, an unchanged catalogue comes back as a 304
+            }
+            download = new CompletableFuture<>();
+            running = downloads.putIfAbsent(path, download);
+        }
+        if (running != null) {
+            return await(running); // Outside the lock, so the download can install its result
+        }
+
+        try {
+            HttpResponse<byte[]> response = download(path, cached);
+            Entry entry;
+            synchronized (this) {
+                entry = install(path, cached, response, System.currentTimeMillis());
+            }
+            download.complete(entry);
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            Entry fallback;
+            synchronized (this) {
+                fallback = e instanceof IOException ? offline : null;
+                if (fallback != null && !isStale()) {
+                    staleSince = now; // The copy in memory was current until this failure
+                }
+            }
+            if (fallback == null) {
+                download.completeExceptionally(e);
+                throw e;
+            }
+            download.complete(fallback);
+            return fallback;
+        } finally {
+            synchronized (this) {
+                downloads.remove(path, download);
+            }
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> download) throws IOException {
+        try {
+            return download.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Fetches the saved catalogue's replacement without holding the lock, so reads keep getting the saved copy meanwhile
+    private void refreshInBackground() {
+        refreshing = true;
+        Entry saved = offline;
+        refresher.execute(() -> {
+            try {
+                HttpResponse<byte[]> response = download(CATALOGUE_PATH, saved);
+                synchronized (this) {
+                    install(CATALOGUE_PATH, saved, response, System.currentTimeMillis());
+                }
+            } catch (IOException e) {
+                // Keep serving the saved copy, the next read tries again
+            } finally {
+                synchronized (this) {
+                    refreshing = false;
+                }
+            }
+        });
+    }
+
+    private HttpResponse<byte[]> download(String path, Entry cached) throws IOException {
+        HttpRequest.Builder request = transport.request(path).GET();
+        if (cached != null) {
+            if (cached.etag != null) {
+                request.header("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                request.header("If-Modified-Since", cached.lastModified);
+            }
+        }
+        return transport.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    // Called with the lock held
+    private Entry install(String path, Entry cached, HttpResponse<byte[]> response, long now) throws IOException {
+        Entry entry;
+        if (response.statusCode() == 304 && cached != null) {
+            cached.fetchedAt = now;
+            entry = cached;
+        } else if (response.statusCode() == 200) {
+            entry = new Entry(response.body(),
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    now);
+        } else {
+            throw new HttpStatusException("Unable to fetch rooms.", response.statusCode());
+        }
+        entries.put(path, entry);
+        staleSince = -1; // The server is answering again, whichever path it was
+
+        if (path.equals(CATALOGUE_PATH)) {
+            Entry saved = offline;
+            offline = entry;
+            if (store != null && changed(saved, entry)) { // A 304 or an identical body leaves the file alone
+                store.save(SNAPSHOT_KEY, new Snapshot(entry.body, entry.etag, entry.lastModified, null, now));
+            }
+        }
+        return entry;
+    }
+
+    private static boolean changed(Entry saved, Entry entry) {
+        return saved == null || (saved != entry && (!Arrays.equals(saved.body, entry.body)
+                || !Objects.equals(saved.etag, entry.etag) || !Objects.equals(saved.lastModified, entry.lastModified)));
+    }
+}
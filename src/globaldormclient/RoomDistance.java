@@ -0,0 +1,19 @@
+package globaldormclient;
+
+public class RoomDistance {
+    private final Room room;
+    private final double distanceMeters;
+
+    public RoomDistance(Room room, double distanceMeters) {
+        this.room = room;
+        this.distanceMeters = distanceMeters;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+}
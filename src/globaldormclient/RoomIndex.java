@@ -0,0 +1,299 @@
+package globaldormclient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read-only secondary indexes over one parsed room catalogue, for answering
+ * RoomQuery searches in-process.
+ * Price (in pence) and availability date (epoch day) have sorted int indexes
+ * searched with a binary search; city and postcode district are hashed to
+ * small int codes with the rows for each code. A sorted and limited query
+ * walks the sort index and stops at the limit; otherwise the smallest
+ * candidate list is filtered against flat per-row columns and sorted by
+ * index rank, so nothing is boxed on the query path.
+ */
+public class RoomIndex {
+    private static final int NO_VALUE = Integer.MIN_VALUE; // e.g. a date that doesn't parse; never matches a condition
+    private static final int NO_CODE = -1;
+
+    private final Room[] rooms;
+    private final int[] pence;
+    private final int[] days;
+    private final int[] cityCodes;
+    private final int[] districtCodes;
+    private final Map<String, Integer> cityIds = new HashMap<>();
+    private final Map<String, Integer> districtIds = new HashMap<>();
+    private final int[][] rowsByCity;
+    private final int[][] rowsByDistrict;
+    private final SortedIntIndex byPrice;
+    private final SortedIntIndex byDate;
+
+    public RoomIndex(List<Room> catalogue) {
+        int count = catalogue.size();
+        rooms = catalogue.toArray(new Room[0]);
+        pence = new int[count];
+        days = new int[count];
+        cityCodes = new int[count];
+        districtCodes = new int[count];
+        for (int row = 0; row < count; row++) {
+            Room room = rooms[row];
+            pence[row] = (int) Math.round(room.getPricePerMonth() * 100);
+            Integer day = RoomQuery.epochDay(room.getAvailabilityDate());
+            days[row] = day == null ? NO_VALUE : day;
+            cityCodes[row] = code(cityIds, room.getCity() == null ? null : room.getCity().trim().toLowerCase(Locale.ROOT));
+            districtCodes[row] = code(districtIds, RoomQuery.district(room.getPostcode()));
+        }
+        rowsByCity = rowsByCode(cityCodes, cityIds.size());
+        rowsByDistrict = rowsByCode(districtCodes, districtIds.size());
+        byPrice = new SortedIntIndex(pence);
+        byDate = new SortedIntIndex(days);
+    }
+
+    public int size() {
+        return rooms.length;
+    }
+
+    public List<Room> query(RoomQuery query) {
+        Criteria criteria = new Criteria(query);
+        if (criteria.empty) {
+            return Collections.emptyList();
+        }
+        SortedIntIndex sort = RoomQuery.SORT_PRICE.equals(query.getSortField()) ? byPrice
+                : RoomQuery.SORT_AVAILABLE.equals(query.getSortField()) ? byDate : null;
+        if (sort != null && query.getLimit() != Integer.MAX_VALUE) {
+            return scanInOrder(sort, criteria, query.isDescending(), query.getLimit());
+        }
+
+        // Drive from the smallest candidate list
+        int[] rows = null;
+        int from = 0;
+        int to = rooms.length;
+        boolean catalogueOrder = true;
+        if (criteria.city != NO_CODE) {
+            rows = rowsByCity[criteria.city];
+            to = rows.length;
+        }
+        if (criteria.district != NO_CODE && (rows == null || rowsByDistrict[criteria.district].length < to - from)) {
+            rows = rowsByDistrict[criteria.district];
+            to = rows.length;
+        }
+        if (criteria.checkPrice) {
+            int start = byPrice.lowerBound(criteria.minPence);
+            int end = byPrice.upperBound(criteria.maxPence);
+            if (rows == null || end - start < to - from) {
+                rows = byPrice.order;
+                from = start;
+                to = end;
+                catalogueOrder = false;
+            }
+        }
+        if (criteria.checkDate) {
+            int start = byDate.lowerBound(criteria.fromDay);
+            int end = byDate.upperBound(criteria.toDay);
+            if (rows == null || end - start < to - from) {
+                rows = byDate.order;
+                from = start;
+                to = end;
+                catalogueOrder = false;
+            }
+        }
+
+        int[] matches = new int[to - from];
+        int matched = 0;
+        int enough = sort == null && catalogueOrder ? query.getLimit() : Integer.MAX_VALUE; // Already in final order
+        for (int i = from; i < to && matched < enough; i++) {
+            int row = rows == null ? i : rows[i];
+            if (criteria.test(row)) {
+                matches[matched++] = row;
+            }
+        }
+
+        if (sort != null) {
+            int ranked = sort.sortByRank(matches, matched);
+            if (query.isDescending()) {
+                reverse(matches, ranked); // Rooms without a value stay last either way
+            }
+        } else if (!catalogueOrder) {
+            Arrays.sort(matches, 0, matched);
+        }
+        List<Room> result = new ArrayList<>(Math.min(matched, query.getLimit()));
+        for (int i = 0; i < matched && i < query.getLimit(); i++) {
+            result.add(rooms[matches[i]]);
+        }
+        return result;
+    }
+
+    // Walks the sort index in order and stops once the limit is reached
+    private List<Room> scanInOrder(SortedIntIndex sort, Criteria criteria, boolean descending, int limit) {
+        int from = 0;
+        int to = sort.order.length;
+        if (sort == byPrice && criteria.checkPrice) {
+            from = sort.lowerBound(criteria.minPence);
+            to = sort.upperBound(criteria.maxPence);
+        } else if (sort == byDate && criteria.checkDate) {
+            from = sort.lowerBound(criteria.fromDay);
+            to = sort.upperBound(criteria.toDay);
+        }
+        List<Room> result = new ArrayList<>(Math.min(limit, to - from));
+        for (int i = 0; i < to - from && result.size() < limit; i++) {
+            int row = sort.order[descending ? to - 1 - i : from + i];
+            if (criteria.test(row)) {
+                result.add(rooms[row]);
+            }
+        }
+        for (int i = 0; i < sort.missing.length && result.size() < limit; i++) {
+            if (criteria.test(sort.missing[i])) {
+                result.add(rooms[sort.missing[i]]);
+            }
+        }
+        return result;
+    }
+
+    private static int code(Map<String, Integer> ids, String key) {
+        return key == null ? NO_CODE : ids.computeIfAbsent(key, k -> ids.size());
+    }
+
+    // Row numbers for each code, in catalogue order
+    private static int[][] rowsByCode(int[] codes, int distinct) {
+        int[] counts = new int[distinct];
+        for (int code : codes) {
+            if (code != NO_CODE) {
+                counts[code]++;
+            }
+        }
+        int[][] rows = new int[distinct][];
+        for (int code = 0; code < distinct; code++) {
+            rows[code] = new int[counts[code]];
+            counts[code] = 0;
+        }
+        for (int row = 0; row < codes.length; row++) {
+            int code = codes[row];
+            if (code != NO_CODE) {
+                rows[code][counts[code]++] = row;
+            }
+        }
+        return rows;
+    }
+
+    private static void reverse(int[] values, int count) {
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    // A query's conditions resolved against this index's columns and codes
+    private class Criteria {
+        final boolean checkPrice;
+        final boolean checkDate;
+        final int minPence;
+        final int maxPence;
+        final int fromDay;
+        final int toDay;
+        final int city;
+        final int district;
+        final boolean empty;
+
+        Criteria(RoomQuery query) {
+            checkPrice = query.hasPriceRange();
+            checkDate = query.hasDayRange();
+            minPence = (int) Math.ceil(query.getMinPrice() * 100); // Infinite bounds saturate to the int range
+            maxPence = (int) Math.floor(query.getMaxPrice() * 100);
+            fromDay = Math.max(query.getFromDay(), NO_VALUE + 1); // Keeps rooms without a date out of a date range
+            toDay = query.getToDay();
+            Integer cityId = query.getCity() == null ? null : cityIds.get(query.getCity());
+            Integer districtId = query.getDistrict() == null ? null : districtIds.get(query.getDistrict());
+            city = cityId == null ? NO_CODE : cityId;
+            district = districtId == null ? NO_CODE : districtId;
+            empty = minPence > maxPence || fromDay > toDay
+                    || (query.getCity() != null && cityId == null)
+                    || (query.getDistrict() != null && districtId == null);
+        }
+
+        boolean test(int row) {
+            return (!checkPrice || (pence[row] >= minPence && pence[row] <= maxPence))
+                    && (!checkDate || (days[row] >= fromDay && days[row] <= toDay))
+                    && (city == NO_CODE || cityCodes[row] == city)
+                    && (district == NO_CODE || districtCodes[row] == district);
+        }
+    }
+
+    // Rows ordered by an int column, with each row's position in that order
+    private static class SortedIntIndex {
+        final int[] keys;    // Sorted column values
+        final int[] order;   // Row at each position
+        final int[] rank;    // Position of each row, Integer.MAX_VALUE for rows without a value
+        final int[] missing; // Rows without a value, in catalogue order
+
+        SortedIntIndex(int[] column) {
+            long[] packed = new long[column.length];
+            int count = 0;
+            for (int row = 0; row < column.length; row++) {
+                if (column[row] != NO_VALUE) {
+                    packed[count++] = ((long) column[row] << 32) | row; // Sorting the longs sorts by value, then row
+                }
+            }
+            Arrays.sort(packed, 0, count);
+            keys = new int[count];
+            order = new int[count];
+            rank = new int[column.length];
+            missing = new int[column.length - count];
+            Arrays.fill(rank, Integer.MAX_VALUE);
+            for (int i = 0; i < count; i++) {
+                keys[i] = (int) (packed[i] >> 32);
+                order[i] = (int) packed[i];
+                rank[order[i]] = i;
+            }
+            for (int row = 0, i = 0; row < column.length; row++) {
+                if (column[row] == NO_VALUE) {
+                    missing[i++] = row;
+                }
+            }
+        }
+
+        // First position whose key is at least the given value
+        int lowerBound(int value) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First position whose key is above the given value
+        int upperBound(int value) {
+            return value == Integer.MAX_VALUE ? keys.length : lowerBound(value + 1);
+        }
+
+        // Sorts rows by rank, returns how many have a value (those come first)
+        int sortByRank(int[] rows, int count) {
+            long[] packed = new long[count];
+            int ranked = 0;
+            for (int i = 0; i < count; i++) {
+                int rowRank = rank[rows[i]];
+                packed[i] = ((long) rowRank << 32) | rows[i];
+                if (rowRank != Integer.MAX_VALUE) {
+                    ranked++;
+                }
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < count; i++) {
+                rows[i] = (int) packed[i];
+            }
+            return ranked;
+        }
+    }
+}
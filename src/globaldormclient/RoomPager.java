@@ -0,0 +1,122 @@
+package globaldormclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pages through the room catalogue.
+ * Each page is requested with limit/offset through the room cache; if the
+ * server ignores those parameters and returns everything, the remaining pages
+ * are read from the same response instead of fetching the catalogue again.
+ */
+public class RoomPager implements Closeable {
+    private final RoomCache cache;
+    private final int pageSize;
+    private int offset = 0;
+    private boolean more = true;
+    private long firstRoomId = -1;
+    private RoomStream unpaged; // Open stream when the server doesn't support paging
+    private Room carried;       // Room read ahead from the open stream
+
+    public RoomPager(RoomCache cache, int pageSize) {
+        this.cache = cache;
+        this.pageSize = pageSize;
+    }
+
+    public boolean hasNextPage() {
+        return more;
+    }
+
+    public List<Room> nextPage() throws IOException {
+        try {
+            return fetchPage();
+        } catch (UncheckedIOException e) {
+            close();
+            throw e.getCause();
+        } catch (IllegalStateException | NumberFormatException e) { // Wrong token type, or a number that isn't one
+            close();
+            throw new IOException("Unexpected room data in response", e);
+        }
+    }
+
+    private List<Room> fetchPage() throws IOException {
+        if (unpaged != null) {
+            List<Room> page = new ArrayList<>();
+            if (carried != null) {
+                page.add(carried);
+                carried = null;
+            }
+            readInto(unpaged, page, pageSize);
+            finishUnpaged();
+            return page;
+        }
+
+        // Ask for one extra room so we know whether another page exists
+        InputStream body = cache.open("?limit=" + (pageSize + 1) + "&offset=" + offset);
+
+        RoomStream stream = new RoomStream(body);
+        List<Room> page = new ArrayList<>();
+        readInto(stream, page, pageSize);
+
+        if (offset == 0 && !page.isEmpty()) {
+            firstRoomId = page.get(0).getId();
+        } else if (!page.isEmpty() && page.get(0).getId() == firstRoomId) {
+            // Server ignored the offset and started from the beginning again
+            int consumed = page.size();
+            page.clear();
+            skip(stream, offset - consumed);
+            readInto(stream, page, pageSize);
+            unpaged = stream;
+            finishUnpaged();
+            return page;
+        }
+
+        if (!stream.hasNext()) {
+            more = false;
+            stream.close();
+        } else {
+            Room peeked = stream.next();
+            if (stream.hasNext()) {
+                // More than limit + 1 rooms came back, so paging isn't supported
+                unpaged = stream;
+                carried = peeked;
+            } else {
+                stream.close();
+            }
+            more = true;
+        }
+        offset += pageSize;
+        return page;
+    }
+
+    @Override
+    public void close() throws IOException {
+        more = false;
+        if (unpaged != null) {
+            unpaged.close();
+            unpaged = null;
+        }
+    }
+
+    private void finishUnpaged() throws IOException {
+        if (carried == null && !unpaged.hasNext()) {
+            close();
+        }
+    }
+
+    private static void readInto(RoomStream stream, List<Room> page, int limit) {
+        while (page.size() < limit && stream.hasNext()) {
+            page.add(stream.next());
+        }
+    }
+
+    private static void skip(RoomStream stream, int count) {
+        for (int i = 0; i < count && stream.hasNext(); i++) {
+            stream.next();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package globaldormclient;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A parsed local room search, for example
+ *   price < 600 and near NG1 4BU and available >= 2025-09-01 sort price limit 10
+ * price and available compare with < <= > >= or =; city and district match
+ * exactly, ignoring case; near takes a postcode and matches rooms in the
+ * same district (outward code), it is not a distance. A sort on price or
+ * available, asc or desc, and a limit may follow. Clauses can be separated
+ * by "and" or commas. A city name may be quoted; unquoted it runs up to the
+ * next clause, so "city = Leeds City" is one name.
+ */
+public class RoomQuery {
+    public static final String SORT_PRICE = "price";
+    public static final String SORT_AVAILABLE = "available";
+
+    private static final Pattern TOKEN = Pattern.compile("\"[^\"]*\"|<=|>=|[<>=,]|[^\\s<>=,\"]+");
+    private static final Set<String> COMPARED = Set.of("price", "available", "city", "district");
+    private static final Pattern OUTWARD_CODE = Pattern.compile("[A-Za-z]{1,2}\\d[A-Za-z\\d]?(\\d[A-Za-z]{2})?");
+
+    private double minPrice = Double.NEGATIVE_INFINITY;
+    private double maxPrice = Double.POSITIVE_INFINITY;
+    private int fromDay = Integer.MIN_VALUE;
+    private int toDay = Integer.MAX_VALUE;
+    private String city;
+    private String district;
+    private String sortField; // Null keeps catalogue order
+    private boolean descending;
+    private int limit = Integer.MAX_VALUE;
+
+    public static RoomQuery parse(String text) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        RoomQuery query = new RoomQuery();
+        int i = 0;
+        while (i < tokens.size()) {
+            String term = tokens.get(i++).toLowerCase(Locale.ROOT);
+            switch (term) {
+                case "and", "," -> { }
+                case "price" -> {
+                    String op = operator(tokens, i++);
+                    double price = number(value(tokens, i++).replace("£", ""));
+                    query.limitPrice(op, price);
+                }
+                case "available" -> {
+                    String op = operator(tokens, i++);
+                    query.limitDay(op, day(value(tokens, i++)));
+                }
+                case "city" -> {
+                    if (!operator(tokens, i++).equals("=")) {
+                        throw new IllegalArgumentException("city only supports =");
+                    }
+                    StringBuilder name = new StringBuilder(unquote(value(tokens, i++)));
+                    while (i < tokens.size() && !startsClause(tokens, i)) {
+                        name.append(' ').append(unquote(tokens.get(i++))); // Unquoted names may span words
+                    }
+                    query.city = name.toString().toLowerCase(Locale.ROOT);
+                }
+                case "district" -> {
+                    if (!operator(tokens, i++).equals("=")) {
+                        throw new IllegalArgumentException("district only supports =");
+                    }
+                    query.district = unquote(value(tokens, i++)).toUpperCase(Locale.ROOT);
+                }
+                case "near" -> {
+                    String postcode = unquote(value(tokens, i++));
+                    if (i < tokens.size() && tokens.get(i).matches("\\d[A-Za-z]{2}")) {
+                        postcode += " " + tokens.get(i++); // Inward code of "NG1 4BU"
+                    }
+                    query.district = district(postcode);
+                }
+                case "sort" -> {
+                    String field = value(tokens, i++).toLowerCase(Locale.ROOT);
+                    if (!field.equals(SORT_PRICE) && !field.equals(SORT_AVAILABLE)) {
+                        throw new IllegalArgumentException("Can only sort by price or available: " + field);
+                    }
+                    query.sortField = field;
+                    if (i < tokens.size() && tokens.get(i).matches("(?i)asc|desc")) {
+                        query.descending = tokens.get(i++).equalsIgnoreCase("desc");
+                    }
+                }
+                case "limit" -> {
+                    query.limit = (int) number(value(tokens, i++));
+                    if (query.limit <= 0) {
+                        throw new IllegalArgumentException("limit must be a positive number");
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown query term: " + term);
+            }
+        }
+        return query;
+    }
+
+    // Outward code of a postcode, e.g. "NG1" for "NG1 4BU" or "ng14bu"
+    public static String district(String postcode) {
+        if (postcode == null) {
+            return null;
+        }
+        String trimmed = postcode.trim().toUpperCase(Locale.ROOT);
+        int space = trimmed.indexOf(' ');
+        if (space > 0) {
+            return trimmed.substring(0, space);
+        }
+        return trimmed.length() > 4 ? trimmed.substring(0, trimmed.length() - 3) : trimmed;
+    }
+
+    // Days since the epoch of an ISO date, or null if it doesn't parse
+    public static Integer epochDay(String date) {
+        try {
+            return date == null ? null : (int) LocalDate.parse(date.trim()).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public int getFromDay() {
+        return fromDay;
+    }
+
+    public int getToDay() {
+        return toDay;
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != Double.NEGATIVE_INFINITY || maxPrice != Double.POSITIVE_INFINITY;
+    }
+
+    public boolean hasDayRange() {
+        return fromDay != Integer.MIN_VALUE || toDay != Integer.MAX_VALUE;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public String getSortField() {
+        return sortField;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    private void limitPrice(String op, double price) {
+        switch (op) {
+            case "<" -> maxPrice = Math.min(maxPrice, Math.nextDown(price));
+            case "<=" -> maxPrice = Math.min(maxPrice, price);
+            case ">" -> minPrice = Math.max(minPrice, Math.nextUp(price));
+            case ">=" -> minPrice = Math.max(minPrice, price);
+            default -> {
+                minPrice = Math.max(minPrice, price);
+                maxPrice = Math.min(maxPrice, price);
+            }
+        }
+    }
+
+    private void limitDay(String op, int day) {
+        switch (op) {
+            case "<" -> toDay = Math.min(toDay, day - 1);
+            case "<=" -> toDay = Math.min(toDay, day);
+            case ">" -> fromDay = Math.max(fromDay, day + 1);
+            case ">=" -> fromDay = Math.max(fromDay, day);
+            default -> {
+                fromDay = Math.max(fromDay, day);
+                toDay = Math.min(toDay, day);
+            }
+        }
+    }
+
+    // True when the token at i begins the next clause rather than continuing a city name,
+    // so that a name word which is also a keyword, as in "Leeds City", stays part of the name
+    private static boolean startsClause(List<String> tokens, int i) {
+        String term = tokens.get(i).toLowerCase(Locale.ROOT);
+        String next = i + 1 < tokens.size() ? tokens.get(i + 1) : "";
+        return switch (term) {
+            case "and", "," -> true;
+            case "near" -> OUTWARD_CODE.matcher(unquote(next)).matches();
+            case "sort" -> next.equalsIgnoreCase(SORT_PRICE) || next.equalsIgnoreCase(SORT_AVAILABLE);
+            case "limit" -> next.matches("\\d+");
+            default -> COMPARED.contains(term) && next.matches("<=|>=|[<>=]");
+        };
+    }
+
+    private static String operator(List<String> tokens, int i) {
+        String op = value(tokens, i);
+        if (!op.matches("<=|>=|[<>=]")) {
+            throw new IllegalArgumentException("Expected one of < <= > >= = but found: " + op);
+        }
+        return op;
+    }
+
+    private static String value(List<String> tokens, int i) {
+        if (i >= tokens.size()) {
+            throw new IllegalArgumentException("Query ends too early");
+        }
+        return tokens.get(i);
+    }
+
+    private static double number(String token) {
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + token);
+        }
+    }
+
+    private static int day(String token) {
+        Integer day = epochDay(unquote(token));
+        if (day == null) {
+            throw new IllegalArgumentException("Dates must look like 2025-09-01: " + token);
+        }
+        return day;
+    }
+
+    private static String unquote(String token) {
+        return token.length() >= 2 && token.startsWith("\"") && token.endsWith("\"") ? token.substring(1, token.length() - 1) : token;
+    }
+}
@@ -0,0 +1,159 @@
+package globaldormclient;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads rooms one at a time from a JSON payload with JsonReader, so memory
+ * use doesn't grow with the size of the catalogue.
+ * Accepts either a top-level array or an object holding a "rooms" array.
+ */
+public class RoomStream implements Iterator<Room>, Closeable {
+    private final JsonReader reader;
+    private boolean started = false;
+    private boolean finished = false;
+
+    public RoomStream(InputStream in) {
+        this.reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            start();
+            if (finished) {
+                return false;
+            }
+            if (reader.hasNext()) {
+                return true;
+            }
+            finished = true;
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Room next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return readRoom(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Positions the reader on the first room of the array
+    private void start() throws IOException {
+        if (started) {
+            return;
+        }
+        started = true;
+        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("rooms") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    return;
+                }
+                reader.skipValue();
+            }
+            finished = true;
+        } else if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+        } else {
+            finished = true;
+        }
+    }
+
+    public static Room readRoom(JsonReader reader) throws IOException {
+        Room room = new Room();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "id", "roomId" -> room.setId(reader.nextLong());
+                case "name" -> room.setName(reader.nextString());
+                case "location" -> readLocation(reader, room);
+                case "details" -> readDetails(reader, room);
+                case "city" -> room.setCity(reader.nextString());
+                case "county" -> room.setCounty(reader.nextString());
+                case "postcode" -> room.setPostcode(reader.nextString());
+                case "price_per_month_gbp", "price" -> room.setPricePerMonth(reader.nextDouble());
+                case "availability_date" -> room.setAvailabilityDate(reader.nextString());
+                case "spoken_languages" -> room.setSpokenLanguages(readStrings(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return room;
+    }
+
+    private static void readLocation(JsonReader reader, Room room) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "city" -> room.setCity(reader.nextString());
+                case "county" -> room.setCounty(reader.nextString());
+                case "postcode" -> room.setPostcode(reader.nextString());
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readDetails(JsonReader reader, Room room) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "furnished" -> room.setFurnished(reader.nextBoolean());
+                case "amenities" -> room.setAmenities(readStrings(reader));
+                case "live_in_landlord" -> room.setLiveInLandlord(reader.nextBoolean());
+                case "shared_with" -> room.setSharedWith(reader.nextInt());
+                case "bills_included" -> room.setBillsIncluded(reader.nextBoolean());
+                case "bathroom_shared" -> room.setBathroomShared(reader.nextBoolean());
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static List<String> readStrings(JsonReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(reader.nextString());
+        }
+        reader.endArray();
+        return values;
+    }
+}
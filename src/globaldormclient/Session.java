@@ -0,0 +1,30 @@
+package globaldormclient;
+
+/**
+ * Identity and role of one logged-in user.
+ * Passed to every operation instead of global login state, so one process
+ * can run many independent sessions at once.
+ */
+public class Session {
+    private final String username;
+    private final boolean admin;
+    private final long startedAt;
+
+    public Session(String username, boolean admin) {
+        this.username = username;
+        this.admin = admin;
+        this.startedAt = System.currentTimeMillis();
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+}
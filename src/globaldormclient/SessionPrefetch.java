@@ -0,0 +1,155 @@
+package globaldormclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads what a session is about to look at as soon as it starts: the room
+ * catalogue, the user's application history and, for admins, the pending
+ * list. Menu actions then read results that are already in memory, or wait
+ * on the request that is already in flight instead of starting another.
+ * Each result is refreshed in the background once it has been used.
+ * Prefetched history is only handed out while it is younger than a short age
+ * limit, and is dropped as soon as an action that changes it completes.
+ */
+public class SessionPrefetch implements Closeable {
+    private static final long HISTORY_MAX_AGE_MILLIS = 30_000; // Older than this and a live fetch is made instead
+
+    private final DormApi dormApi;
+    private final RoomCache roomCache;
+    private final PendingFeed pendingFeed; // Null for non-admin sessions
+    private final Session session;
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "session-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long historyMaxAgeMillis;
+    private CompletableFuture<FetchedHistory> history; // Null once discarded
+    private CompletableFuture<PendingChanges> pending;
+
+    public SessionPrefetch(DormApi dormApi, RoomCache roomCache, Session session, PendingFeed pendingFeed) {
+        this(dormApi, roomCache, session, pendingFeed, HISTORY_MAX_AGE_MILLIS);
+    }
+
+    SessionPrefetch(DormApi dormApi, RoomCache roomCache, Session session, PendingFeed pendingFeed, long historyMaxAgeMillis) {
+        this.dormApi = dormApi;
+        this.roomCache = roomCache;
+        this.session = session;
+        this.pendingFeed = pendingFeed;
+        this.historyMaxAgeMillis = historyMaxAgeMillis;
+    }
+
+    // Starts every fetch without waiting for any of them
+    public synchronized void start() {
+        supply(roomCache::getRooms).exceptionally(e -> null); // Errors surface again when the rooms are viewed
+        refreshHistory();
+        if (pendingFeed != null) {
+            pending = supply(pendingFeed::sync);
+        }
+    }
+
+    // Current history, waiting for it if still in flight; the next one starts loading straight away
+    public HttpResponse<String> takeHistory() throws IOException {
+        CompletableFuture<FetchedHistory> current;
+        synchronized (this) {
+            if (history == null || isExpired(history)) {
+                refreshHistory(); // Too old to show as current, this fetch also serves the next view
+                current = history;
+            } else {
+                current = history;
+                refreshHistory();
+            }
+        }
+        return join(current).response;
+    }
+
+    // History if a recent enough copy has already arrived, or null without waiting
+    public synchronized HttpResponse<String> peekHistory() {
+        if (history == null || isExpired(history)) {
+            refreshHistory();
+            return null;
+        }
+        if (history.isDone() && !history.isCompletedExceptionally()) {
+            return history.join().response;
+        }
+        return null;
+    }
+
+    // Starts a new history fetch, e.g. after an apply or cancel changed it
+    public synchronized void refreshHistory() {
+        history = supply(() -> {
+            HttpResponse<String> response = dormApi.history(session);
+            return new FetchedHistory(response, System.currentTimeMillis());
+        });
+    }
+
+    // Drops the prefetched history without fetching another, the next view fetches it live
+    public synchronized void discardHistory() {
+        history = null;
+    }
+
+    // Changes since the last view: the prefetched sync the first time, a live one after that
+    public PendingChanges syncPending() throws IOException {
+        CompletableFuture<PendingChanges> prefetched;
+        synchronized (this) {
+            prefetched = pending;
+            pending = null;
+        }
+        return prefetched != null ? join(prefetched) : pendingFeed.sync();
+    }
+
+    // A failed fetch counts as expired so that it is retried rather than reported again
+    private boolean isExpired(CompletableFuture<FetchedHistory> fetched) {
+        if (!fetched.isDone()) {
+            return false;
+        }
+        return fetched.isCompletedExceptionally()
+                || System.currentTimeMillis() - fetched.join().fetchedAt > historyMaxAgeMillis;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static class FetchedHistory {
+        final HttpResponse<String> response;
+        final long fetchedAt;
+
+        FetchedHistory(HttpResponse<String> response, long fetchedAt) {
+            this.response = response;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private interface Fetch<T> {
+        T get() throws IOException;
+    }
+
+    private <T> CompletableFuture<T> supply(Fetch<T> fetch) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return fetch.get();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package globaldormclient;
+
+import java.nio.charset.StandardCharsets;
+
+public class Snapshot {
+    private final byte[] body;
+    private final String etag;         // Validators from the response the body came from, may be null
+    private final String lastModified;
+    private final String cursor;       // Feed position for incremental data sets, may be null
+    private final long savedAt;
+
+    public Snapshot(byte[] body, String etag, String lastModified, String cursor, long savedAt) {
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.cursor = cursor;
+        this.savedAt = savedAt;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getBodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public long getSavedAt() {
+        return savedAt;
+    }
+}
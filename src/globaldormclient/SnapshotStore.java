@@ -0,0 +1,94 @@
+package globaldormclient;
+
+import java.io.*;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Last good copy of each data set (rooms, histories, pending applications),
+ * one small binary file per set, so reads can be answered at start-up and
+ * while the backend is down.
+ * Files are a fixed header followed by the gzipped body, replaced through a
+ * temp file and atomic rename so a crash never leaves a half-written copy.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x47445331; // "GDS1"
+
+    private final Path dir;
+
+    public SnapshotStore(Path dir) {
+        this.dir = dir;
+    }
+
+    // The stored copy, or null if there is none or it can't be read
+    public Snapshot load(String key) {
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            long savedAt = in.readLong();
+            String etag = emptyToNull(in.readUTF());
+            String lastModified = emptyToNull(in.readUTF());
+            String cursor = emptyToNull(in.readUTF());
+            int length = in.readInt();
+            byte[] body = new GZIPInputStream(in).readNBytes(length);
+            if (body.length != length) {
+                return null;
+            }
+            return new Snapshot(body, etag, lastModified, cursor, savedAt);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable snapshot " + file.getFileName());
+            return null;
+        }
+    }
+
+    public void save(String key, Snapshot snapshot) {
+        Path file = fileFor(key);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(dir);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeLong(snapshot.getSavedAt());
+                out.writeUTF(nullToEmpty(snapshot.getEtag()));
+                out.writeUTF(nullToEmpty(snapshot.getLastModified()));
+                out.writeUTF(nullToEmpty(snapshot.getCursor()));
+                out.writeInt(snapshot.getBody().length);
+                GZIPOutputStream gzip = new GZIPOutputStream(out);
+                gzip.write(snapshot.getBody());
+                gzip.finish();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving offline snapshot.");
+            e.printStackTrace();
+        }
+    }
+
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Path fileFor(String key) {
+        return dir.resolve(URLEncoder.encode(key, StandardCharsets.UTF_8) + ".snap");
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
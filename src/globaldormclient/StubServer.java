@@ -0,0 +1,311 @@
+package globaldormclient;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process stand-in for the GlobalDorm backend, built on com.sun.net.httpserver.
+ * Implements the routes the client calls with a configurable response delay,
+ * so the client and the load generator can run offline and in CI.
+ */
+public class StubServer {
+    public static final String CONTEXT = "/GlobalDorm/Dorm/rooms";
+    private static final String[] POSTCODES = {"SW1A 1AA", "M1 1AE", "NG1 4BU", "B1 1AA", "LS1 1UR", "EH1 1YZ"};
+    private static final int GZIP_MIN_BYTES = 1024; // Smaller bodies fit in a packet either way
+    private static final String[] CITIES = {"London", "Manchester", "Nottingham", "Birmingham", "Leeds", "Edinburgh"};
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long delayMs;
+    private final long jitterMs;
+    private final byte[] roomsBody;
+    private final byte[] roomsGzip;
+    private final String roomsEtag;
+    private final int roomCount;
+    private final Map<Long, JsonObject> applications = new ConcurrentHashMap<>();
+    private final List<JsonObject> changes = new ArrayList<>(); // Every application write, in order; index + 1 is the cursor
+    private final Map<String, Boolean> applyKeys = new HashMap<>(); // Idempotency-Key -> whether that apply created its application
+
+    static {
+        // Headers and body go out as separate small writes; without this, Nagle plus delayed ACKs add ~40ms per call
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public StubServer(int port, int roomCount, long delayMs, long jitterMs) throws IOException {
+        this.delayMs = delayMs;
+        this.jitterMs = jitterMs;
+        this.roomCount = roomCount;
+        this.roomsBody = buildRooms(0, roomCount).toString().getBytes(StandardCharsets.UTF_8);
+        this.roomsGzip = gzip(roomsBody);
+        this.roomsEtag = "\"" + Integer.toHexString(Arrays.hashCode(roomsBody)) + "\"";
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = Executors.newFixedThreadPool(64);
+        server.setExecutor(executor);
+        server.createContext(CONTEXT, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort() + CONTEXT;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            pause();
+            URI uri = exchange.getRequestURI();
+            String path = uri.getPath().substring(CONTEXT.length());
+            Map<String, String> query = parseQuery(uri.getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (method.equals("GET") && (path.isEmpty() || path.equals("/"))) {
+                sendRooms(exchange, query);
+            } else if (method.equals("HEAD") && (path.isEmpty() || path.equals("/"))) {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, -1); // Node health checks
+            } else if (method.equals("POST") && path.equals("/apply")) {
+                JsonObject request = JsonParser.parseReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)).getAsJsonObject();
+                long id = request.get("applicationId").getAsLong();
+                request.addProperty("status", "pending");
+                String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+                boolean created;
+                synchronized (changes) {
+                    if (key != null && applyKeys.containsKey(key)) {
+                        created = applyKeys.get(key); // A repeat gets the first answer again
+                        request = applications.getOrDefault(id, request);
+                    } else {
+                        created = applications.putIfAbsent(id, request) == null;
+                        if (created) {
+                            changes.add(request);
+                        }
+                        if (key != null) {
+                            applyKeys.put(key, created);
+                        }
+                    }
+                }
+                if (created) {
+                    send(exchange, 200, request.toString());
+                } else {
+                    send(exchange, 409, message("Application ID already exists."));
+                }
+            } else if (method.equals("DELETE") && path.startsWith("/cancel/")) {
+                JsonObject application;
+                synchronized (changes) {
+                    application = applications.remove(Long.parseLong(path.substring("/cancel/".length())));
+                    if (application != null) {
+                        JsonObject cancelled = application.deepCopy();
+                        cancelled.addProperty("status", "cancelled");
+                        changes.add(cancelled);
+                    }
+                }
+                send(exchange, application == null ? 404 : 200, message(application == null ? "Not found." : "Application cancelled."));
+            } else if (method.equals("GET") && path.startsWith("/history/")) {
+                String user = URLDecoder.decode(path.substring("/history/".length()), StandardCharsets.UTF_8);
+                JsonArray history = new JsonArray();
+                applications.values().stream().filter(a -> a.get("userId").getAsString().equals(user)).forEach(history::add);
+                send(exchange, history.size() == 0 ? 404 : 200, history.toString());
+            } else if (method.equals("GET") && path.equals("/applications/pending")) {
+                sendPending(exchange, query);
+            } else if (method.equals("PUT") && path.startsWith("/accept/")) {
+                JsonObject accepted = null;
+                synchronized (changes) {
+                    JsonObject application = applications.get(Long.parseLong(path.substring("/accept/".length())));
+                    if (application != null) {
+                        // Stored records are never mutated in place so concurrent readers stay safe
+                        accepted = application.deepCopy();
+                        accepted.addProperty("status", "accepted");
+                        applications.put(accepted.get("applicationId").getAsLong(), accepted);
+                        changes.add(accepted);
+                    }
+                }
+                if (accepted == null) {
+                    send(exchange, 404, message("Not found."));
+                } else {
+                    send(exchange, 200, accepted.toString());
+                }
+            } else if (method.equals("GET") && path.equals("/proximity")) {
+                long seed = (query.getOrDefault("userPostcode", "") + query.getOrDefault("roomId", "")).hashCode();
+                send(exchange, 200, "{\"routes\":[{\"distance\":" + (1_000 + Math.floorMod(seed, 50_000)) + ".0}]}");
+            } else if (method.equals("GET") && path.startsWith("/weather/")) {
+                long seed = uri.getRawQuery() == null ? 0 : uri.getRawQuery().hashCode();
+                send(exchange, 200, "{\"weather\":{\"timepoint\":3,\"temperature\":" + Math.floorMod(seed, 25)
+                        + ",\"cloudcover\":" + (1 + Math.floorMod(seed, 9)) + "}}");
+            } else {
+                send(exchange, 404, message("Unknown route."));
+            }
+        } catch (RuntimeException e) {
+            send(exchange, 400, message("Bad request: " + e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sendRooms(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (query.containsKey("limit")) {
+            int limit = Integer.parseInt(query.get("limit"));
+            int offset = Integer.parseInt(query.getOrDefault("offset", "0"));
+            send(exchange, 200, buildRooms(offset, Math.min(roomCount, offset + limit)).toString());
+            return;
+        }
+        if (roomsEtag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.getResponseHeaders().set("ETag", roomsEtag);
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("ETag", roomsEtag);
+        send(exchange, 200, roomsBody, roomsGzip);
+    }
+
+    // Full pending list, or with ?since=<cursor> the latest state of every application changed after it
+    private void sendPending(HttpExchange exchange, Map<String, String> query) throws IOException {
+        JsonArray pending = new JsonArray();
+        int cursor;
+        synchronized (changes) {
+            cursor = changes.size();
+            if (query.containsKey("since")) {
+                int since = Integer.parseInt(query.get("since"));
+                if (since < 0 || since > cursor) {
+                    send(exchange, 410, message("Unknown cursor."));
+                    return;
+                }
+                Map<Long, JsonObject> latest = new LinkedHashMap<>();
+                for (JsonObject change : changes.subList(since, cursor)) {
+                    latest.put(change.get("applicationId").getAsLong(), change);
+                }
+                latest.values().forEach(pending::add);
+            } else {
+                applications.values().stream().filter(a -> a.get("status").getAsString().equals("pending")).forEach(pending::add);
+            }
+        }
+        String etag = "\"pending-" + cursor + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("X-Pending-Cursor", String.valueOf(cursor));
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        send(exchange, 200, pending.toString());
+    }
+
+    private JsonArray buildRooms(int from, int to) {
+        JsonArray rooms = new JsonArray();
+        for (int i = from; i < to; i++) {
+            JsonObject location = new JsonObject();
+            location.addProperty("city", CITIES[i % CITIES.length]);
+            location.addProperty("county", CITIES[i % CITIES.length]);
+            location.addProperty("postcode", POSTCODES[i % POSTCODES.length]);
+            JsonObject details = new JsonObject();
+            details.addProperty("furnished", i % 2 == 0);
+            details.addProperty("live_in_landlord", i % 3 == 0);
+            details.addProperty("shared_with", i % 4);
+            details.addProperty("bills_included", i % 5 != 0);
+            details.addProperty("bathroom_shared", i % 2 == 1);
+            JsonObject room = new JsonObject();
+            room.addProperty("id", i + 1);
+            room.addProperty("name", "Room " + (i + 1));
+            room.add("location", location);
+            room.add("details", details);
+            room.addProperty("price_per_month_gbp", 400 + (i * 37) % 900);
+            room.addProperty("availability_date", "2025-" + String.format("%02d", 1 + i % 12) + "-01");
+            rooms.add(room);
+        }
+        return rooms;
+    }
+
+    private void pause() {
+        long delay = delayMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        send(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        send(exchange, status, body, null);
+    }
+
+    // Gzips bodies worth compressing when the client accepts it; gzipped may hold a precompressed copy
+    private static void send(HttpExchange exchange, int status, byte[] body, byte[] gzipped) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (body.length >= GZIP_MIN_BYTES && accept != null && accept.contains("gzip")) {
+            body = gzipped != null ? gzipped : gzip(body);
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static String message(String text) {
+        JsonObject message = new JsonObject();
+        message.addProperty("message", text);
+        return message.toString();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int split = pair.indexOf('=');
+            if (split > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, split), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(split + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+}
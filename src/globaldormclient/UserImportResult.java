@@ -0,0 +1,61 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserImportResult {
+    private static final int MAX_ERRORS = 20; // Enough to spot a pattern without flooding the console
+
+    private int imported;
+    private int existing;
+    private int invalid;
+    private final List<String> errors = new ArrayList<>();
+    private IOException failure;
+
+    void addImported(int count) {
+        imported += count;
+    }
+
+    void addExisting(String username) {
+        existing++;
+        addError("username already exists: " + username);
+    }
+
+    void addInvalid(String error) {
+        invalid++;
+        addError(error);
+    }
+
+    void setFailure(IOException failure) {
+        this.failure = failure;
+    }
+
+    private void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getExisting() {
+        return existing;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+
+    // Why the import stopped early, or null if it read the whole input
+    public IOException getFailure() {
+        return failure;
+    }
+
+    // The first few problems, in file order
+    public List<String> getErrors() {
+        return errors;
+    }
+}
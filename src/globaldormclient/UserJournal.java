@@ -0,0 +1,183 @@
+package globaldormclient;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Append-only log of user records sitting next to the users snapshot file.
+ * Appends are buffered and fsynced in batches; compaction writes a fresh
+ * snapshot through a temp file and atomic rename, then truncates the log.
+ */
+public class UserJournal implements Closeable {
+    private static final int FSYNC_BATCH = 64; // Force to disk at least every N records
+
+    private final Path snapshot;
+    private final Path log;
+    private final Gson gson;
+    private FileChannel channel;
+    private Writer writer;
+    private int unsynced = 0;
+    private long logRecords = 0;
+    private boolean damaged;
+
+    public UserJournal(Path snapshot, Gson gson) {
+        this.snapshot = snapshot;
+        this.log = snapshot.resolveSibling(snapshot.getFileName() + ".log");
+        this.gson = gson;
+    }
+
+    // Reads back every record in the log. A torn last line, left by a crash mid-append, is cut off;
+    // an unreadable line before others is skipped and marks the log damaged so it isn't compacted away
+    public synchronized List<User> replay() throws IOException {
+        List<User> records = new ArrayList<>();
+        int skipped = 0;
+        if (Files.exists(log)) {
+            long offset = 0;
+            long goodEnd = 0; // Bytes up to the end of the last line that isn't torn
+            int lineNumber = 0;
+            int badLine = 0; // Unreadable line not yet known to be the last one
+            try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    offset += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    if (badLine > 0) {
+                        System.err.println("Skipping unreadable record at line " + badLine + " of " + log.getFileName());
+                        skipped++;
+                        badLine = 0;
+                    }
+                    User user = parse(line);
+                    if (user == null) {
+                        badLine = lineNumber;
+                    } else {
+                        records.add(user);
+                        goodEnd = offset;
+                    }
+                }
+            }
+            if (badLine > 0) {
+                System.err.println("Ignoring incomplete record at end of " + log.getFileName());
+                if (channel == null) {
+                    // Cut it off so the next append starts on a line of its own
+                    try (FileChannel out = FileChannel.open(log, StandardOpenOption.WRITE)) {
+                        out.truncate(goodEnd);
+                    }
+                }
+            }
+        }
+        logRecords = records.size() + skipped;
+        damaged = skipped > 0;
+        return records;
+    }
+
+    // True when the last replay skipped unreadable records; compaction would lose them for good
+    public synchronized boolean isDamaged() {
+        return damaged;
+    }
+
+    public synchronized void append(User user) throws IOException {
+        open();
+        writer.write(gson.toJson(user));
+        writer.write('\n');
+        unsynced++;
+        logRecords++;
+        if (unsynced >= FSYNC_BATCH) {
+            sync();
+        }
+    }
+
+    // Writes a batch of records with a single fsync at the end
+    public synchronized void appendAll(Collection<User> users) throws IOException {
+        open();
+        for (User user : users) {
+            writer.write(gson.toJson(user));
+            writer.write('\n');
+        }
+        unsynced += users.size();
+        logRecords += users.size();
+        sync();
+    }
+
+    // Flushes buffered records and forces them to disk
+    public synchronized void sync() throws IOException {
+        if (writer == null || unsynced == 0) {
+            return;
+        }
+        writer.flush();
+        channel.force(false);
+        unsynced = 0;
+    }
+
+    public synchronized long getLogRecords() {
+        return logRecords;
+    }
+
+    // Writes all users to a new snapshot via atomic rename and empties the log
+    public synchronized void compact(Collection<User> users) throws IOException {
+        if (damaged) {
+            throw new IOException(log.getFileName() + " has unreadable records, not compacting until they are fixed or removed");
+        }
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer snapshotWriter = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(out), StandardCharsets.UTF_8));
+            JsonWriter json = new JsonWriter(snapshotWriter);
+            json.beginArray();
+            for (User user : users) {
+                JsonAdapters.USER.write(json, user);
+            }
+            json.endArray();
+            json.flush();
+            out.force(true);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Records are keyed by username, so replaying a log that survived a crash here is harmless
+        open();
+        writer.flush();
+        channel.truncate(0);
+        channel.force(true);
+        unsynced = 0;
+        logRecords = 0;
+    }
+
+    // The record on one log line, or null if it can't be read
+    private User parse(String line) {
+        try {
+            return gson.fromJson(line, User.class);
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    private void open() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            sync();
+            writer.close();
+            channel = null;
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package globaldormclient;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory user store backed by the users file.
+ * Users are loaded once into a hash index keyed by username; the file is only
+ * re-read when its modification time or size changes on disk.
+ * Writes go to an append-only journal which is compacted into the users
+ * file in the background.
+ */
+public class UserRepository implements Closeable {
+    private static final long SYNC_INTERVAL_MS = 100;
+    private static final long COMPACT_INTERVAL_MS = 30_000;
+    private static final int MIN_COMPACT_RECORDS = 1_000;
+
+    private final File file;
+    private final Gson gson;
+    private final UserJournal journal;
+    private final Map<String, User> users = new LinkedHashMap<>(); // Keeps file order when saving
+    private final ScheduledExecutorService scheduler;
+    private final OperationStats findStats;
+    private final OperationStats addStats;
+    private final OperationStats updateStats;
+    private final OperationStats addAllStats;
+    private final OperationStats loadStats;
+    private final OperationStats compactStats;
+    private long loadedModified = -1;
+    private long loadedSize = -1;
+
+    public UserRepository(String path, Gson gson) {
+        this(path, gson, new Metrics(false));
+    }
+
+    public UserRepository(String path, Gson gson, Metrics metrics) {
+        this.file = new File(path);
+        this.findStats = metrics.userStore("find");
+        this.addStats = metrics.userStore("add");
+        this.updateStats = metrics.userStore("update");
+        this.addAllStats = metrics.userStore("addAll");
+        this.loadStats = metrics.userStore("load");
+        this.compactStats = metrics.userStore("compact");
+        this.gson = gson;
+        this.journal = new UserJournal(file.toPath(), gson);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "user-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncJournal, SYNC_INTERVAL_MS, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::compactIfNeeded, COMPACT_INTERVAL_MS, COMPACT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized User find(String username) {
+        long start = System.nanoTime();
+        refreshIfChanged();
+        User user = users.get(username);
+        findStats.record(System.nanoTime() - start, 0, 0, 0);
+        return user;
+    }
+
+    public synchronized boolean exists(String username) {
+        return find(username) != null;
+    }
+
+    // Adds a user and persists the store, returns false if the username is taken
+    public synchronized boolean add(User user) {
+        long start = System.nanoTime();
+        refreshIfChanged();
+        if (users.containsKey(user.getUsername())) {
+            addStats.record(System.nanoTime() - start, 0, 0, 0);
+            return false;
+        }
+        users.put(user.getUsername(), user);
+        appendToJournal(user, addStats, start);
+        return true;
+    }
+
+    // Adds a batch of users as one journal commit, returns the ones whose username was already taken.
+    // If the journal can't be written none of the batch is kept, not even in memory.
+    public synchronized List<User> addAll(List<User> batch) throws IOException {
+        long start = System.nanoTime();
+        refreshIfChanged();
+        List<User> added = new ArrayList<>(batch.size());
+        List<User> taken = new ArrayList<>();
+        for (User user : batch) {
+            if (users.putIfAbsent(user.getUsername(), user) == null) {
+                added.add(user);
+            } else {
+                taken.add(user);
+            }
+        }
+        try {
+            journal.appendAll(added);
+            addAllStats.record(System.nanoTime() - start, 0, 0, 0);
+        } catch (IOException e) {
+            for (User user : added) {
+                users.remove(user.getUsername(), user);
+            }
+            addAllStats.recordError(System.nanoTime() - start, 0);
+            throw e;
+        }
+        return taken;
+    }
+
+    // Stores a changed record for an existing or new user
+    public synchronized void update(User user) {
+        long start = System.nanoTime();
+        refreshIfChanged();
+        users.put(user.getUsername(), user);
+        appendToJournal(user, updateStats, start);
+    }
+
+    public synchronized int size() {
+        refreshIfChanged();
+        return users.size();
+    }
+
+    // Every user in file order, copied so callers can walk it without holding the lock
+    public synchronized List<User> listUsers() {
+        refreshIfChanged();
+        return new ArrayList<>(users.values());
+    }
+
+    // Rewrites the users file from memory and empties the journal
+    public synchronized void compact() {
+        long start = System.nanoTime();
+        refreshIfChanged(); // Keep users added to the file by someone else
+        try {
+            journal.compact(users.values());
+            recordFileState();
+            compactStats.record(System.nanoTime() - start, 0, 0, loadedSize);
+        } catch (IOException e) {
+            compactStats.recordError(System.nanoTime() - start, 0);
+            System.err.println("Error compacting users journal.");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        scheduler.shutdownNow();
+        if (journal.getLogRecords() > 0 && !journal.isDamaged()) {
+            compact();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Cheap stat check so external edits to the file are still picked up
+    private synchronized void refreshIfChanged() {
+        if (file.lastModified() != loadedModified || file.length() != loadedSize) {
+            loadUsers();
+        }
+    }
+
+    private synchronized void loadUsers() {
+        if (!file.exists()) {
+            try {
+                file.createNewFile(); // Create the file if it doesn't exist
+                Files.writeString(file.toPath(), "[]", StandardCharsets.UTF_8); // Initialize with an empty JSON array
+                System.err.println("Created new users.json file.");
+            } catch (IOException e) {
+                System.err.println("Error creating users.json file.");
+                e.printStackTrace();
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            journal.sync(); // Records still in the journal's buffer would otherwise miss the replay below
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        users.clear();
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
+            // Stream users straight into the index instead of building a List first
+            if (file.length() > 0 && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    User user = JsonAdapters.USER.read(reader);
+                    users.put(user.getUsername(), user);
+                }
+                reader.endArray();
+            }
+            // Records in the journal are newer than the snapshot
+            for (User user : journal.replay()) {
+                users.put(user.getUsername(), user);
+            }
+            recordFileState();
+            loadStats.record(System.nanoTime() - start, 0, loadedSize, 0);
+        } catch (IOException e) {
+            recordFileState();
+            loadStats.recordError(System.nanoTime() - start, 0);
+            e.printStackTrace();
+        }
+    }
+
+    private void appendToJournal(User user, OperationStats stats, long start) {
+        try {
+            journal.append(user);
+            stats.record(System.nanoTime() - start, 0, 0, 0);
+        } catch (IOException e) {
+            stats.recordError(System.nanoTime() - start, 0);
+            System.err.println("Error writing to users journal.");
+            e.printStackTrace();
+        }
+    }
+
+    private void syncJournal() {
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Compacting once the log outgrows the snapshot keeps inserts amortized O(1)
+    private synchronized void compactIfNeeded() {
+        refreshIfChanged();
+        long records = journal.getLogRecords();
+        if (!journal.isDamaged() && records >= MIN_COMPACT_RECORDS && records >= users.size() / 2) {
+            compact();
+        }
+    }
+
+    private void recordFileState() {
+        loadedModified = file.lastModified();
+        loadedSize = file.length();
+    }
+}
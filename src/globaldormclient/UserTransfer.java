@@ -0,0 +1,357 @@
+package globaldormclient;
+
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk import and export of user accounts as CSV or JSON-lines.
+ * Input is streamed one record at a time and committed to the repository in
+ * batches: each batch has its passwords hashed in parallel and goes to the
+ * journal with a single fsync, and usernames are checked against the
+ * repository's index as they are added. Only one batch is held in memory.
+ * Records carry either a plain "password", which is hashed on the way in, or
+ * a "passwordHash" as written by an export, which is stored as it is.
+ */
+public class UserTransfer {
+    private static final int BATCH_SIZE = 4096;
+    private static final int HASH_LENGTH = 64;
+
+    public enum Format {
+        CSV, JSONL;
+
+        public static Format of(String name) {
+            return switch (name.toLowerCase(Locale.ROOT)) {
+                case "csv" -> CSV;
+                case "jsonl", "json-lines" -> JSONL;
+                default -> throw new IllegalArgumentException("Unknown format: " + name + " (use csv or jsonl)");
+            };
+        }
+
+        // CSV for a .csv file, JSON-lines for anything else including stdin
+        public static Format forFile(String path) {
+            return path.toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : JSONL;
+        }
+    }
+
+    private final UserRepository repository;
+    private final int batchSize;
+
+    public UserTransfer(UserRepository repository) {
+        this(repository, BATCH_SIZE);
+    }
+
+    public UserTransfer(UserRepository repository, int batchSize) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+    }
+
+    // Adds every valid record whose username is free; records before a malformed one stay committed.
+    // A failed journal write stops the import, the result then counts only the batches already on disk.
+    public UserImportResult importUsers(Reader input, Format format) throws IOException {
+        UserImportResult result = new UserImportResult();
+        Source source = format == Format.CSV ? new CsvSource(input) : new JsonLinesSource(input);
+        List<Record> batch = new ArrayList<>(batchSize);
+        Record record;
+        while ((record = source.next()) != null) {
+            String error = record.validate();
+            if (error != null) {
+                result.addInvalid(record.position + ": " + error);
+                continue;
+            }
+            batch.add(record);
+            if (batch.size() == batchSize && !commit(batch, result)) {
+                return result;
+            }
+        }
+        commit(batch, result);
+        return result;
+    }
+
+    // Writes every user with their stored hash, returns how many were written
+    public int exportUsers(Writer output, Format format) throws IOException {
+        List<User> users = repository.listUsers();
+        if (format == Format.CSV) {
+            output.write("username,passwordHash,isAdmin\n");
+            for (User user : users) {
+                output.write(csvField(user.getUsername()));
+                output.write(',');
+                output.write(csvField(user.getPassword()));
+                output.write(',');
+                output.write(Boolean.toString(user.isAdmin()));
+                output.write('\n');
+            }
+        } else {
+            for (User user : users) {
+                JsonWriter json = new JsonWriter(output); // Writes straight through, one per line
+                json.beginObject();
+                json.name("username").value(user.getUsername());
+                json.name("passwordHash").value(user.getPassword());
+                json.name("isAdmin").value(user.isAdmin());
+                json.endObject();
+                output.write('\n');
+            }
+        }
+        output.flush();
+        return users.size();
+    }
+
+    // Returns false if the batch couldn't be written, the failure is then recorded in the result
+    private boolean commit(List<Record> batch, UserImportResult result) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        // Hash the plain passwords of the batch in one parallel pass
+        List<Integer> plain = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).passwordHash == null) {
+                plain.add(i);
+            }
+        }
+        String[] passwords = new String[plain.size()];
+        for (int i = 0; i < passwords.length; i++) {
+            passwords[i] = batch.get(plain.get(i)).password;
+        }
+        String[] hashes = PasswordHasher.hashAll(passwords);
+        for (int i = 0; i < hashes.length; i++) {
+            batch.get(plain.get(i)).passwordHash = hashes[i];
+        }
+
+        List<User> users = new ArrayList<>(batch.size());
+        for (Record record : batch) {
+            users.add(new User(record.username, record.passwordHash, record.admin));
+        }
+        List<User> taken;
+        try {
+            taken = repository.addAll(users);
+        } catch (IOException e) {
+            result.setFailure(e);
+            return false;
+        }
+        result.addImported(users.size() - taken.size());
+        for (User user : taken) {
+            result.addExisting(user.getUsername());
+        }
+        batch.clear();
+        return true;
+    }
+
+    // Quotes a CSV field only when it needs it
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // Splits one CSV line, honouring double quotes and "" escapes
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // true/yes/1 or false/no/0, null for anything else
+    private static Boolean parseAdmin(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "1" -> Boolean.TRUE;
+            case "false", "no", "0", "" -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    // One input record before it becomes a User
+    private static class Record {
+        final String position;
+        String username;
+        String password;
+        String passwordHash;
+        boolean admin;
+        String error; // Set while parsing, e.g. a bad admin flag
+
+        Record(String position) {
+            this.position = position;
+        }
+
+        String validate() {
+            if (error != null) {
+                return error;
+            }
+            if (username == null || username.isBlank()) {
+                return "missing username";
+            }
+            if (passwordHash != null) {
+                if (passwordHash.length() != HASH_LENGTH || !passwordHash.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+                    return "passwordHash must be " + HASH_LENGTH + " hex digits";
+                }
+                passwordHash = passwordHash.toLowerCase(Locale.ROOT);
+                return null;
+            }
+            return password == null || password.isEmpty() ? "missing password" : null;
+        }
+    }
+
+    private interface Source {
+        // The next record, or null at the end of the input
+        Record next() throws IOException;
+    }
+
+    // A header line naming the columns, then one user per line
+    private static class CsvSource implements Source {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private int lineNumber;
+
+        CsvSource(Reader input) throws IOException {
+            reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+            String header = reader.readLine();
+            lineNumber = 1;
+            if (header == null) {
+                return;
+            }
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1); // Byte order mark from spreadsheet exports
+            }
+            List<String> names = splitCsv(header);
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+                columns.putIfAbsent(name.equals("admin") ? "isadmin" : name, i);
+            }
+            if (!columns.containsKey("username") || !(columns.containsKey("password") || columns.containsKey("passwordhash"))) {
+                throw new IOException("CSV header must name a username column and a password or passwordHash column");
+            }
+        }
+
+        @Override
+        public Record next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            List<String> fields = splitCsv(line);
+            Record record = new Record("line " + lineNumber);
+            record.username = field(fields, "username");
+            record.password = field(fields, "password");
+            String hash = field(fields, "passwordhash");
+            record.passwordHash = hash == null || hash.isEmpty() ? null : hash;
+            String admin = field(fields, "isadmin");
+            if (admin != null) {
+                Boolean parsed = parseAdmin(admin);
+                if (parsed == null) {
+                    record.error = "isAdmin must be true or false: " + admin;
+                } else {
+                    record.admin = parsed;
+                }
+            }
+            return record;
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= fields.size() ? null : fields.get(index);
+        }
+    }
+
+    // One JSON object per line (any whitespace between objects is accepted)
+    private static class JsonLinesSource implements Source {
+        private final JsonReader reader;
+        private int recordNumber;
+
+        JsonLinesSource(Reader input) {
+            reader = new JsonReader(input);
+            reader.setStrictness(Strictness.LENIENT); // Allows more than one top-level value
+        }
+
+        @Override
+        public Record next() throws IOException {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+                return null;
+            }
+            recordNumber++;
+            Record record = new Record("record " + recordNumber);
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                record.error = "not a JSON object";
+                return record;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                JsonToken token = reader.peek();
+                if (token == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "username" -> record.username = string(record, name, token);
+                    case "password" -> record.password = string(record, name, token);
+                    case "passwordHash" -> record.passwordHash = string(record, name, token);
+                    case "isAdmin" -> {
+                        Boolean admin = token == JsonToken.BOOLEAN ? Boolean.valueOf(reader.nextBoolean())
+                                : token == JsonToken.STRING ? parseAdmin(reader.nextString()) : null;
+                        if (admin == null) {
+                            if (token != JsonToken.STRING) {
+                                reader.skipValue();
+                            }
+                            record.error = "isAdmin must be true or false";
+                        } else {
+                            record.admin = admin;
+                        }
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return record;
+        }
+
+        private String string(Record record, String name, JsonToken token) throws IOException {
+            if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                return reader.nextString();
+            }
+            reader.skipValue();
+            record.error = name + " must be a string";
+            return null;
+        }
+    }
+}
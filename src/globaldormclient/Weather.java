@@ -0,0 +1,31 @@
+package globaldormclient;
+
+public class Weather {
+    private final int timepoint;
+    private final int temperature;
+    private final int cloudcover;
+    private final long fetchedAt;
+
+    public Weather(int timepoint, int temperature, int cloudcover, long fetchedAt) {
+        this.timepoint = timepoint;
+        this.temperature = temperature;
+        this.cloudcover = cloudcover;
+        this.fetchedAt = fetchedAt;
+    }
+
+    public int getTimepoint() {
+        return timepoint;
+    }
+
+    public int getTemperature() {
+        return temperature;
+    }
+
+    public int getCloudcover() {
+        return cloudcover;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+}
@@ -0,0 +1,132 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of parsed weather forecasts keyed by room ID or postcode.
+ * A forecast stays valid until its timepoint has passed, and concurrent
+ * lookups for the same key share a single upstream request. Expired
+ * forecasts are dropped when they are next looked up, and the map is swept
+ * once it grows past its size cap.
+ */
+public class WeatherCache {
+    private static final Duration MIN_TTL = Duration.ofMinutes(15);
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final HttpTransport transport;
+    private final long minTtlMs;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Weather> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Weather>> inFlight = new ConcurrentHashMap<>();
+
+    public WeatherCache(HttpTransport transport) {
+        this(transport, MIN_TTL, MAX_ENTRIES);
+    }
+
+    WeatherCache(HttpTransport transport, Duration minTtl, int maxEntries) {
+        this.transport = transport;
+        this.minTtlMs = minTtl.toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    public Weather getByRoom(long roomId) throws IOException {
+        return get("/weather/room?roomId=" + roomId);
+    }
+
+    public Weather getByPostcode(String postcode) throws IOException {
+        String normalized = postcode.trim().toUpperCase(Locale.ROOT);
+        return get("/weather/postcode?postcode=" + URLEncoder.encode(normalized, StandardCharsets.UTF_8));
+    }
+
+    public CompletableFuture<Weather> getAsync(String path) {
+        Weather cached = cache.get(path);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            cache.remove(path, cached);
+        }
+        // Only the first caller starts a request, the rest join its future
+        CompletableFuture<Weather> created = new CompletableFuture<>();
+        CompletableFuture<Weather> existing = inFlight.putIfAbsent(path, created);
+        if (existing != null) {
+            return existing;
+        }
+        transport.getAsync(path)
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new CompletionException(new HttpStatusException("Unable to fetch weather data.", response.statusCode()));
+                    }
+                    Weather weather = parse(response.body());
+                    if (weather != null) {
+                        store(path, weather);
+                    }
+                    return weather;
+                })
+                .whenComplete((weather, error) -> {
+                    inFlight.remove(path, created);
+                    if (error != null) {
+                        created.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                    } else {
+                        created.complete(weather);
+                    }
+                });
+        return created;
+    }
+
+    public void invalidate() {
+        cache.clear();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private void store(String path, Weather weather) {
+        if (cache.size() >= maxEntries && !cache.containsKey(path)) {
+            cache.values().removeIf(this::isExpired);
+            // Still full of live forecasts, so make room by dropping arbitrary ones
+            Iterator<String> keys = cache.keySet().iterator();
+            while (cache.size() >= maxEntries && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        cache.put(path, weather);
+    }
+
+    private Weather get(String path) throws IOException {
+        try {
+            return getAsync(path).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    // Forecasts are for "timepoint" hours ahead, so they expire once that time is reached
+    private boolean isExpired(Weather weather) {
+        long ttl = Math.max(TimeUnit.HOURS.toMillis(weather.getTimepoint()), minTtlMs);
+        return System.currentTimeMillis() - weather.getFetchedAt() >= ttl;
+    }
+
+    // Returns null when the response has no weather section
+    static Weather parse(String jsonResponse) {
+        try {
+            return JsonAdapters.readWeather(jsonResponse, System.currentTimeMillis());
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new CompletionException(new IOException("Error while parsing weather data", e));
+        }
+    }
+}
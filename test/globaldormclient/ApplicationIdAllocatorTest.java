@@ -0,0 +1,50 @@
+package globaldormclient;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ApplicationIdAllocatorTest {
+    private static final long SEQUENCE_MASK = (1 << 12) - 1;
+
+    @Test
+    public void idsAreUniqueAndIncreasing() {
+        ApplicationIdAllocator ids = new ApplicationIdAllocator(5);
+        Set<Long> seen = new HashSet<>();
+        long last = 0;
+        for (int i = 0; i < 20_000; i++) { // More than one second's worth of sequence numbers
+            long id = ids.next();
+            assertTrue(seen.add(id));
+            assertTrue(id > last);
+            assertTrue("fits in a JSON number", id < (1L << 53));
+            last = id;
+        }
+    }
+
+    @Test
+    public void fullSecondBorrowsTheNext() {
+        ApplicationIdAllocator ids = new ApplicationIdAllocator(0);
+        long id = ids.next();
+        while ((id & SEQUENCE_MASK) != SEQUENCE_MASK) {
+            id = ids.next();
+        }
+        long borrowed = ids.next();
+        assertEquals("the next second", (id >> 22) + 1, borrowed >> 22);
+        assertEquals(0, borrowed & SEQUENCE_MASK);
+    }
+
+    @Test
+    public void instanceIsPartOfTheId() {
+        long a = new ApplicationIdAllocator(1).next();
+        long b = new ApplicationIdAllocator(2).next();
+        assertEquals(1, (a >> 12) & 1023);
+        assertEquals(2, (b >> 12) & 1023);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOutOfRangeInstance() {
+        new ApplicationIdAllocator(1024);
+    }
+}
@@ -0,0 +1,104 @@
+package globaldormclient;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestServer server;
+    private UserRepository users;
+    private BatchRunner runner;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer(exchange -> TestServer.send(exchange, 200,
+                exchange.getRequestMethod().equals("POST") ? "{\"status\":\"pending\"}" : TestServer.rooms(3)));
+        Path file = folder.getRoot().toPath().resolve("users.json");
+        Files.writeString(file, "[]", StandardCharsets.UTF_8);
+        users = new UserRepository(file.toString(), JsonAdapters.GSON);
+        users.add(new User("alice", PasswordHasher.hash("a1"), false));
+        users.add(new User("bob", PasswordHasher.hash("b1"), false));
+
+        Authenticator slowLogins = new Authenticator(users) {
+            @Override
+            public Session login(String username, String password) {
+                try {
+                    Thread.sleep(200); // Long enough for anything not chained behind the login to overtake it
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.login(username, password);
+            }
+        };
+        HttpTransport transport = new HttpTransport(server.getBaseUrl());
+        runner = new BatchRunner(new DormApi(transport), slowLogins, null, null,
+                new RoomCache(transport, Duration.ofMinutes(5)), 4);
+    }
+
+    @After
+    public void tearDown() {
+        users.close();
+        server.close();
+    }
+
+    @Test
+    public void loginFinishesBeforeTheUsersNextCommandAndOutputKeepsInputOrder() throws IOException {
+        List<JsonObject> results = run(
+                "{\"op\":\"login\",\"user\":\"alice\",\"password\":\"a1\"}",
+                "{\"op\":\"apply\",\"user\":\"alice\",\"applicationId\":7,\"roomId\":3}",
+                "{\"op\":\"query\",\"query\":\"price < 403\"}",
+                "not json",
+                "{\"op\":\"apply\",\"user\":\"bob\",\"applicationId\":8,\"roomId\":1}");
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1, results.get(i).get("line").getAsInt());
+        }
+        assertTrue(results.get(0).get("ok").getAsBoolean());
+        assertTrue("apply ran as the logged-in user", results.get(1).get("ok").getAsBoolean());
+        assertEquals(2, results.get(2).get("count").getAsInt());
+        assertFalse(results.get(3).get("ok").getAsBoolean());
+        assertEquals("Not logged in.", results.get(4).get("error").getAsString());
+    }
+
+    @Test
+    public void failedLoginDropsTheEarlierSession() throws IOException {
+        List<JsonObject> results = run(
+                "{\"op\":\"login\",\"user\":\"alice\",\"password\":\"a1\"}",
+                "{\"op\":\"login\",\"user\":\"alice\",\"password\":\"wrong\"}",
+                "{\"op\":\"apply\",\"user\":\"alice\",\"applicationId\":7,\"roomId\":3}");
+
+        assertTrue(results.get(0).get("ok").getAsBoolean());
+        assertFalse(results.get(1).get("ok").getAsBoolean());
+        assertEquals("Not logged in.", results.get(2).get("error").getAsString());
+        assertEquals("no apply was sent", 0, server.getRequests());
+    }
+
+    private List<JsonObject> run(String... lines) throws IOException {
+        StringWriter output = new StringWriter();
+        runner.run(new StringReader(String.join("\n", lines)), output);
+        List<JsonObject> results = new ArrayList<>();
+        for (String line : output.toString().split("\n")) {
+            results.add(JsonParser.parseString(line).getAsJsonObject());
+        }
+        assertEquals(lines.length, results.size());
+        return results;
+    }
+}
@@ -0,0 +1,110 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BulkAccepterTest {
+    private static final List<Application> PENDING = List.of(
+            new Application(3, 10, "alice", "pending"),
+            new Application(5, 11, "bob", "pending"),
+            new Application(7, 10, "bob", "pending"),
+            new Application(12, 12, "carol", "pending"));
+
+    private final Map<Long, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private TestServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void selectAllTakesEveryPendingApplication() {
+        assertEquals(List.of(3L, 5L, 7L, 12L), BulkAccepter.select(PENDING, " ALL "));
+    }
+
+    @Test
+    public void selectByRoomAndByUser() {
+        assertEquals(List.of(3L, 7L), BulkAccepter.select(PENDING, "room=10"));
+        assertEquals(List.of(5L, 7L), BulkAccepter.select(PENDING, "user=bob"));
+        assertEquals(List.of(), BulkAccepter.select(PENDING, "user=dave"));
+    }
+
+    @Test
+    public void selectListsAndRanges() {
+        // Listed IDs are kept even when not pending, ranges only cover pending ones
+        assertEquals(List.of(12L, 99L, 3L, 5L), BulkAccepter.select(PENDING, "12, 99, 1-6, 5"));
+        assertEquals(List.of(), BulkAccepter.select(PENDING, "20-30"));
+        assertEquals(List.of(7L), BulkAccepter.select(PENDING, " 7 ,, "));
+    }
+
+    @Test
+    public void selectRejectsBadIds() {
+        for (String selection : new String[] {"abc", "0", "room=x", "3-", "-2"}) {
+            try {
+                BulkAccepter.select(PENDING, selection);
+                fail("expected " + selection + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().startsWith("Application IDs must be positive numbers"));
+            }
+        }
+    }
+
+    @Test
+    public void transientFailuresAreRetried() throws IOException {
+        // 3 gets a 429 and 5 a 503 on the first try, 7 is missing for good
+        server = new TestServer(exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+            int attempt = attempts.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+            if (id == 7) {
+                TestServer.send(exchange, 404, "{}");
+            } else if (attempt == 1 && id != 12) {
+                TestServer.send(exchange, id == 3 ? 429 : 503, "{}");
+            } else {
+                TestServer.send(exchange, 200, "{}");
+            }
+        });
+        Queue<AcceptResult> reported = new ConcurrentLinkedQueue<>();
+
+        List<AcceptResult> results = accepter().acceptAll(List.of(3L, 5L, 7L, 12L), 2, reported::add);
+
+        assertEquals(4, reported.size());
+        assertEquals(List.of(3L, 5L, 7L, 12L), results.stream().map(AcceptResult::getApplicationId).toList());
+        assertTrue(results.get(0).isAccepted());
+        assertEquals(2, results.get(0).getAttempts());
+        assertTrue(results.get(1).isAccepted());
+        assertEquals(2, results.get(1).getAttempts());
+        assertEquals(404, results.get(2).getStatusCode());
+        assertEquals("client errors are not retried", 1, results.get(2).getAttempts());
+        assertEquals(1, results.get(3).getAttempts());
+        assertEquals(6, server.getRequests());
+    }
+
+    @Test
+    public void retriesStopWhenExhausted() throws IOException {
+        server = new TestServer(exchange -> TestServer.send(exchange, 500, "{}"));
+
+        List<AcceptResult> results = accepter().acceptAll(List.of(3L), 1, result -> { });
+
+        assertFalse(results.get(0).isAccepted());
+        assertEquals(500, results.get(0).getStatusCode());
+        assertEquals(2, results.get(0).getAttempts());
+        assertEquals(2, server.getRequests());
+    }
+
+    private BulkAccepter accepter() {
+        return new BulkAccepter(new DormApi(new HttpTransport(server.getBaseUrl())), 2);
+    }
+}
@@ -0,0 +1,50 @@
+package globaldormclient;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60_000);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess(); // Resets the run
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals("open", breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void letsOneTrialThroughAfterTheOpenPeriod() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 50);
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+
+        Thread.sleep(80);
+        assertEquals("half-open", breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertFalse("only one trial at a time", breaker.allowRequest());
+
+        breaker.recordSuccess();
+        assertEquals("closed", breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void failedTrialReopens() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 50);
+        breaker.recordFailure();
+        Thread.sleep(80);
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals("open", breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+}
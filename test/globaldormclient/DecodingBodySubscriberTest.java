@@ -0,0 +1,152 @@
+package globaldormclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DecodingBodySubscriberTest {
+    private static final byte[] BODY = TestServer.rooms(200).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void inflatesGzipWhateverTheChunking() throws Exception {
+        byte[] gzip = gzip(BODY);
+        for (int chunk : new int[] {1, 3, 10, 4096, gzip.length}) {
+            assertArrayEquals("chunks of " + chunk, BODY, decode("gzip", gzip, chunk).get());
+        }
+    }
+
+    @Test
+    public void skipsOptionalGzipHeaderFields() throws Exception {
+        byte[] gzip = gzipWithAllHeaderFields(BODY);
+        assertArrayEquals(BODY, decode("gzip", gzip, 1).get());
+        assertArrayEquals(BODY, decode("x-gzip", gzip, 7).get());
+    }
+
+    @Test
+    public void inflatesZlibAndRawDeflate() throws Exception {
+        assertArrayEquals(BODY, decode("deflate", deflate(BODY, false), 5).get());
+        assertArrayEquals(BODY, decode("deflate", deflate(BODY, true), 5).get());
+    }
+
+    @Test
+    public void truncatedBodyIsAnError() throws Exception {
+        byte[] gzip = gzip(BODY);
+        assertFailsWithIoError(decode("gzip", Arrays.copyOf(gzip, gzip.length / 2), 100));
+        assertFailsWithIoError(decode("gzip", Arrays.copyOf(gzip, 6), 100)); // Inside the header
+    }
+
+    @Test
+    public void gzipTrailerMismatchIsAnError() throws Exception {
+        byte[] gzip = gzip(BODY);
+        byte[] badCrc = gzip.clone();
+        badCrc[gzip.length - 8] ^= 1;
+        byte[] badLength = gzip.clone();
+        badLength[gzip.length - 1] ^= 1;
+        for (int chunk : new int[] {1, 5, gzip.length}) {
+            assertFailsWithIoError(decode("gzip", badCrc, chunk));
+            assertFailsWithIoError(decode("gzip", badLength, chunk));
+        }
+    }
+
+    @Test
+    public void missingGzipTrailerIsAnError() throws Exception {
+        byte[] gzip = gzip(BODY);
+        assertFailsWithIoError(decode("gzip", Arrays.copyOf(gzip, gzip.length - 8), 100));
+        assertFailsWithIoError(decode("gzip", Arrays.copyOf(gzip, gzip.length - 3), 1));
+    }
+
+    @Test
+    public void bodyThatIsNotGzipIsAnError() throws Exception {
+        assertFailsWithIoError(decode("gzip", BODY, 100));
+    }
+
+    @Test
+    public void emptyBodyIsEmpty() throws Exception {
+        assertEquals(0, decode("gzip", new byte[0], 1).get().length);
+    }
+
+    // Feeds the encoded body through the subscriber in fixed-size chunks
+    private static CompletableFuture<byte[]> decode(String encoding, byte[] encoded, int chunk) {
+        DecodingBodySubscriber<byte[]> subscriber = new DecodingBodySubscriber<>(HttpResponse.BodySubscribers.ofByteArray(), encoding);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        for (int i = 0; i < encoded.length; i += chunk) {
+            List<ByteBuffer> buffers = new ArrayList<>();
+            buffers.add(ByteBuffer.wrap(encoded, i, Math.min(chunk, encoded.length - i)));
+            subscriber.onNext(buffers);
+        }
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture();
+    }
+
+    private static void assertFailsWithIoError(CompletableFuture<byte[]> body) throws InterruptedException {
+        try {
+            body.get();
+            fail("expected the body to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    // FEXTRA, FNAME, FCOMMENT and FHCRC all set, which GZIPOutputStream never writes
+    private static byte[] gzipWithAllHeaderFields(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] {0x1f, (byte) 0x8b, 8, 4 | 8 | 16 | 2, 0, 0, 0, 0, 0, (byte) 255});
+        out.write(new byte[] {3, 0, 'a', 'b', 'c'});
+        out.write("rooms.json\0".getBytes(StandardCharsets.ISO_8859_1));
+        out.write("catalogue\0".getBytes(StandardCharsets.ISO_8859_1));
+        out.write(new byte[] {0, 0});
+        out.write(deflate(data, true));
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        out.write(littleEndian((int) crc.getValue()));
+        out.write(littleEndian(data.length));
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data, boolean raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static byte[] littleEndian(int value) {
+        return new byte[] {(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24)};
+    }
+}
@@ -0,0 +1,39 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DormApiTest {
+    private final Queue<String> paths = new ConcurrentLinkedQueue<>();
+    private TestServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer(exchange -> {
+            paths.add(exchange.getRequestURI().getRawPath());
+            TestServer.send(exchange, 200, "[]");
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void historyPathPercentEncodesTheUsername() throws IOException {
+        DormApi api = new DormApi(new HttpTransport(server.getBaseUrl()));
+
+        api.history(new Session("mary jane", false));
+        api.historyAsync(new Session("a+b/c", false)).join();
+
+        assertEquals("/rooms/history/mary%20jane", paths.poll());
+        assertEquals("/rooms/history/a%2Bb%2Fc", paths.poll());
+    }
+}
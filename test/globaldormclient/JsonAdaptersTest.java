@@ -0,0 +1,133 @@
+package globaldormclient;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JsonAdaptersTest {
+    @Test
+    public void userRoundTrips() {
+        User user = new User("alice", "5e884898", true);
+
+        User copy = JsonAdapters.GSON.fromJson(JsonAdapters.GSON.toJson(user), User.class);
+
+        assertEquals("alice", copy.getUsername());
+        assertEquals("5e884898", copy.getPassword());
+        assertTrue(copy.isAdmin());
+    }
+
+    @Test
+    public void userWithMissingAndNullFieldsGetsDefaults() {
+        User user = JsonAdapters.GSON.fromJson("{\"username\":\"bob\",\"password\":null,\"extra\":[1,2]}", User.class);
+
+        assertEquals("bob", user.getUsername());
+        assertNull(user.getPassword());
+        assertFalse(user.isAdmin());
+        assertNull(JsonAdapters.GSON.fromJson("null", User.class));
+    }
+
+    @Test
+    public void roomRoundTrips() {
+        Room room = new Room();
+        room.setId(7);
+        room.setName("Attic");
+        room.setCity("Leeds");
+        room.setCounty("West Yorkshire");
+        room.setPostcode("LS1 1UR");
+        room.setFurnished(true);
+        room.setAmenities(List.of("wifi", "desk"));
+        room.setSharedWith(2);
+        room.setBillsIncluded(true);
+        room.setPricePerMonth(450.5);
+        room.setAvailabilityDate("2026-09-01");
+        room.setSpokenLanguages(List.of("English", "Welsh"));
+
+        Room copy = JsonAdapters.GSON.fromJson(JsonAdapters.GSON.toJson(room), Room.class);
+
+        assertEquals(7, copy.getId());
+        assertEquals("Attic", copy.getName());
+        assertEquals("Leeds", copy.getCity());
+        assertEquals("West Yorkshire", copy.getCounty());
+        assertEquals("LS1 1UR", copy.getPostcode());
+        assertTrue(copy.isFurnished());
+        assertEquals(List.of("wifi", "desk"), copy.getAmenities());
+        assertFalse(copy.isLiveInLandlord());
+        assertEquals(2, copy.getSharedWith());
+        assertTrue(copy.isBillsIncluded());
+        assertFalse(copy.isBathroomShared());
+        assertEquals(450.5, copy.getPricePerMonth(), 0);
+        assertEquals("2026-09-01", copy.getAvailabilityDate());
+        assertEquals(List.of("English", "Welsh"), copy.getSpokenLanguages());
+    }
+
+    @Test
+    public void roomWithMissingAndNullFieldsGetsDefaults() {
+        Room room = JsonAdapters.GSON.fromJson(
+                "{\"id\":3,\"name\":null,\"location\":{\"city\":\"York\",\"postcode\":null},\"details\":null}", Room.class);
+
+        assertEquals(3, room.getId());
+        assertNull(room.getName());
+        assertEquals("York", room.getCity());
+        assertNull(room.getPostcode());
+        assertTrue(room.getAmenities().isEmpty());
+        assertEquals(0, room.getPricePerMonth(), 0);
+    }
+
+    @Test
+    public void applicationRoundTripsAndAcceptsIdAlias() {
+        Application application = new Application(12, 3, "alice", "pending");
+
+        Application copy = JsonAdapters.GSON.fromJson(JsonAdapters.GSON.toJson(application), Application.class);
+        assertEquals(application, copy);
+        assertEquals("pending", copy.getStatus());
+
+        Application aliased = JsonAdapters.GSON.fromJson("{\"id\":9,\"roomId\":4,\"userId\":null}", Application.class);
+        assertEquals(9, aliased.getApplicationId());
+        assertEquals(4, aliased.getRoomId());
+        assertNull(aliased.getUserId());
+        assertNull(aliased.getStatus());
+    }
+
+    @Test
+    public void readDistanceTakesTheFirstRoute() throws IOException {
+        assertEquals(1234.5, JsonAdapters.readDistance(
+                "{\"code\":\"Ok\",\"routes\":[{\"duration\":60,\"distance\":1234.5},{\"distance\":1}]}"), 0);
+        assertEquals(-1, JsonAdapters.readDistance("{\"routes\":[]}"), 0);
+        assertEquals(-1, JsonAdapters.readDistance("{\"routes\":[{\"distance\":null}]}"), 0);
+        assertEquals(-1, JsonAdapters.readDistance("{\"code\":\"NoRoute\"}"), 0);
+        assertEquals(-1, JsonAdapters.readDistance("[]"), 0);
+    }
+
+    @Test
+    public void readWeatherKeepsTheFetchTime() throws IOException {
+        Weather weather = JsonAdapters.readWeather(
+                "{\"product\":\"civil\",\"weather\":{\"timepoint\":3,\"temperature\":-2,\"cloudcover\":8,\"wind\":{}}}", 42);
+
+        assertEquals(3, weather.getTimepoint());
+        assertEquals(-2, weather.getTemperature());
+        assertEquals(8, weather.getCloudcover());
+        assertEquals(42, weather.getFetchedAt());
+        assertNull(JsonAdapters.readWeather("{\"product\":\"civil\"}", 42));
+        assertNull(JsonAdapters.readWeather("{\"weather\":null}", 42));
+        assertNull(JsonAdapters.readWeather("[]", 42));
+    }
+
+    @Test
+    public void readApplicationsReadsAnArrayAndSkipsAnythingElse() throws IOException {
+        List<Application> applications = JsonAdapters.readApplications(new JsonReader(new StringReader(
+                "[{\"applicationId\":1,\"roomId\":2,\"userId\":\"bob\",\"status\":\"accepted\"},{\"id\":5}]")));
+
+        assertEquals(2, applications.size());
+        assertEquals(new Application(1, 2, "bob", "accepted"), applications.get(0));
+        assertEquals(5, applications.get(1).getApplicationId());
+
+        JsonReader reader = new JsonReader(new StringReader("{\"error\":\"nope\"}"));
+        assertTrue(JsonAdapters.readApplications(reader).isEmpty());
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+}
@@ -0,0 +1,84 @@
+package globaldormclient;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+    private static final double RELATIVE_ERROR = 1.0 / 64;
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 0; micros < 64; micros++) {
+            histogram.record(micros);
+        }
+
+        assertEquals(0, histogram.percentile(0));
+        assertEquals(31, histogram.percentile(50));
+        assertEquals(63, histogram.percentile(100));
+    }
+
+    @Test
+    public void percentilesStayWithinTheBucketErrorAcrossScales() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] samples = new long[100_000];
+        Random random = new Random(7);
+        for (int i = 0; i < samples.length; i++) {
+            // Log-uniform from 1 microsecond to about 17 minutes
+            samples[i] = (long) Math.pow(2, random.nextDouble() * 30);
+            histogram.record(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        for (double percentile : new double[] {1, 10, 25, 50, 75, 90, 95, 99, 99.9, 100}) {
+            long exact = samples[(int) Math.ceil(samples.length * percentile / 100.0) - 1];
+            long reported = histogram.percentile(percentile);
+            assertTrue("p" + percentile + " under-stated: " + reported + " < " + exact, reported >= exact);
+            assertTrue("p" + percentile + " too high: " + reported + " vs " + exact,
+                    reported <= exact + Math.max(0, exact * RELATIVE_ERROR));
+        }
+    }
+
+    @Test
+    public void tailIsSeparatedFromTheBulk() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 900; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 100; i++) {
+            histogram.record(50_000);
+        }
+
+        assertEquals(100, histogram.percentile(50), 100 * RELATIVE_ERROR);
+        assertEquals(100, histogram.percentile(90), 100 * RELATIVE_ERROR);
+        assertEquals(50_000, histogram.percentile(95), 50_000 * RELATIVE_ERROR);
+        assertEquals(5_090, histogram.getMeanMicros(), 0);
+    }
+
+    @Test
+    public void hugeValuesLandInTheLastBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(Long.MAX_VALUE, histogram.percentile(50));
+    }
+
+    @Test
+    public void nanosAreConvertedAndResetEmpties() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(2_500_000);
+        histogram.recordNanos(-5);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(2_500, histogram.percentile(100), 2_500 * RELATIVE_ERROR);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentile(99));
+        assertEquals(0, histogram.getMeanMicros(), 0);
+    }
+}
@@ -0,0 +1,39 @@
+package globaldormclient;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+    @Test
+    public void numericSegmentsCollapseToId() {
+        assertEquals("/accept/{id}", Metrics.template("/accept/42"));
+        assertEquals("/rooms/{id}/photos/{id}", Metrics.template("/rooms/12/photos/3"));
+        assertEquals("/v2/rooms", Metrics.template("/v2/rooms"));
+        assertEquals("/rooms/12a", Metrics.template("/rooms/12a"));
+    }
+
+    @Test
+    public void historyUserCollapsesWhateverItIs() {
+        assertEquals("/history/{user}", Metrics.template("/history/alice"));
+        assertEquals("/history/{user}", Metrics.template("/history/bob%20smith"));
+        assertEquals("/history/{user}", Metrics.template("/history/1234"));
+        assertEquals("/history", Metrics.template("/history"));
+    }
+
+    @Test
+    public void queryStringIsDropped() {
+        assertEquals("/weather/room", Metrics.template("/weather/room?roomId=5"));
+        assertEquals("/", Metrics.template("?limit=20&offset=40"));
+        assertEquals("/", Metrics.template(""));
+        assertEquals("/", Metrics.template("/"));
+    }
+
+    @Test
+    public void callsToOneEndpointShareStats() {
+        Metrics metrics = new Metrics(false);
+
+        assertSame(metrics.http("PUT", "/accept/1"), metrics.http("PUT", "/accept/2"));
+        assertNotSame(metrics.http("PUT", "/accept/1"), metrics.http("GET", "/accept/1"));
+    }
+}
@@ -0,0 +1,126 @@
+package globaldormclient;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MultiApplierTest {
+    private final Queue<Long> sentIds = new ConcurrentLinkedQueue<>();
+    private TestServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void idCollisionIsRetriedWithAFreshId() throws IOException {
+        AtomicInteger applies = new AtomicInteger();
+        server = new TestServer(exchange -> {
+            readApply(exchange);
+            TestServer.send(exchange, applies.incrementAndGet() == 1 ? 409 : 200, "{}");
+        });
+
+        ApplyResult result = applier().apply(new Session("alice", false), 3, 0).join();
+        assertTrue(result.isApplied());
+        assertFalse(result.isAlreadyApplied());
+        assertEquals(2, result.getAttempts());
+        assertEquals(2, sentIds.size());
+        assertNotEquals(sentIds.poll(), sentIds.poll());
+    }
+
+    @Test
+    public void conflictOnResendIsConfirmedFromHistory() throws IOException {
+        AtomicInteger applies = new AtomicInteger();
+        AtomicReference<String> history = new AtomicReference<>("[]");
+        server = new TestServer(exchange -> {
+            if (exchange.getRequestMethod().equals("GET")) {
+                TestServer.send(exchange, 200, history.get());
+                return;
+            }
+            JsonObject apply = readApply(exchange);
+            if (applies.incrementAndGet() == 1) {
+                history.set("[{\"applicationId\":" + apply.get("applicationId") + ",\"roomId\":3,\"userId\":\"alice\",\"status\":\"pending\"}]");
+                TestServer.send(exchange, 503, "{}"); // Stored, but the answer was lost
+            } else {
+                TestServer.send(exchange, 409, "{}");
+            }
+        });
+
+        ApplyResult result = applier().apply(new Session("alice", false), 3, 1).join();
+        assertTrue(result.isApplied());
+        assertTrue(result.isAlreadyApplied());
+        assertEquals("the retry reuses the ID", 1, sentIds.stream().distinct().count());
+    }
+
+    @Test
+    public void resultsComeBackInTheOrderGiven() throws IOException {
+        server = new TestServer(exchange -> {
+            readApply(exchange);
+            TestServer.send(exchange, 200, "{}");
+        });
+
+        List<ApplyResult> results = applier().applyAll(new Session("alice", false), List.of(3L, 4L, 5L), 0, result -> { });
+        assertEquals(3, results.size());
+        assertEquals(3, server.getRequests());
+        assertEquals(3L, results.get(0).getRoomId());
+        assertEquals(5L, results.get(2).getRoomId());
+    }
+
+    @Test
+    public void applyThatThrowsIsReportedAsAFailedResult() throws IOException {
+        server = new TestServer(exchange -> {
+            JsonObject apply = readApply(exchange);
+            TestServer.send(exchange, apply.get("roomId").getAsLong() == 4 ? 409 : 200, "{}");
+        });
+        // The collision retry for room 4 blows up before anything is sent
+        AtomicInteger sends = new AtomicInteger();
+        DormApi api = new DormApi(new HttpTransport(server.getBaseUrl())) {
+            @Override
+            public CompletableFuture<HttpResponse<String>> applyAsync(Session session, long applicationId, long roomId, String idempotencyKey) {
+                if (roomId == 4 && sends.incrementAndGet() > 1) {
+                    throw new IllegalStateException("apply exploded");
+                }
+                return super.applyAsync(session, applicationId, roomId, idempotencyKey);
+            }
+        };
+        Queue<ApplyResult> reported = new ConcurrentLinkedQueue<>();
+
+        List<ApplyResult> results = new MultiApplier(api, new ApplicationIdAllocator(1), 4)
+                .applyAll(new Session("alice", false), List.of(3L, 4L, 5L), 0, reported::add);
+
+        assertEquals(3, results.size());
+        assertEquals(3, reported.size());
+        assertFalse(reported.contains(null));
+        assertTrue(results.get(0).isApplied());
+        assertEquals(4L, results.get(1).getRoomId());
+        assertFalse(results.get(1).isApplied());
+        assertEquals("apply exploded", results.get(1).getError());
+        assertTrue(results.get(2).isApplied());
+    }
+
+    private MultiApplier applier() {
+        return new MultiApplier(new DormApi(new HttpTransport(server.getBaseUrl())), new ApplicationIdAllocator(1), 4);
+    }
+
+    private JsonObject readApply(HttpExchange exchange) throws IOException {
+        JsonObject apply = JsonParser.parseString(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+        sentIds.add(apply.get("applicationId").getAsLong());
+        return apply;
+    }
+}
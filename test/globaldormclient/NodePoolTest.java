@@ -0,0 +1,78 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NodePoolTest {
+    private static ResiliencePolicy policy(int breakerFailures) {
+        return new ResiliencePolicy(Duration.ofSeconds(2), Duration.ofSeconds(2), Map.of(), 0,
+                0, 0, breakerFailures, 60_000, false);
+    }
+
+    private static String origin(TestServer server) {
+        URI uri = URI.create(server.getBaseUrl());
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+
+    @Test
+    public void choosesOnlyNodesNotYetTried() {
+        NodePool pool = new NodePool(List.of("http://a:1", "http://b:1", "http://c:1"));
+        BackendNode a = pool.getNodes().get(0);
+        BackendNode b = pool.getNodes().get(1);
+        BackendNode c = pool.getNodes().get(2);
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(c, pool.choose(Set.of(a, b)));
+            assertNotSame(a, pool.choose(Set.of(a)));
+        }
+        assertTrue(pool.canFailOver(Set.of(a, b)));
+        assertFalse(pool.canFailOver(Set.of(a, b, c)));
+        assertNotNull("falls back to a tried node when none are left", pool.choose(Set.of(a, b, c)));
+    }
+
+    @Test
+    public void failedGetTriesEveryNodeOnce() throws IOException {
+        try (TestServer a = new TestServer(exchange -> TestServer.send(exchange, 503, "{}"));
+             TestServer b = new TestServer(exchange -> TestServer.send(exchange, 503, "{}"));
+             TestServer c = new TestServer(exchange -> TestServer.send(exchange, 503, "{}"))) {
+            NodePool pool = new NodePool(List.of(origin(a), origin(b), origin(c)));
+            HttpTransport transport = new HttpTransport(a.getBaseUrl(), new Metrics(false), policy(100), pool);
+
+            HttpResponse<String> response = transport.get("/weather/room/1");
+            assertEquals(503, response.statusCode());
+            assertEquals(1, a.getRequests());
+            assertEquals(1, b.getRequests());
+            assertEquals(1, c.getRequests());
+        }
+    }
+
+    @Test
+    public void breakerOpensForTheFailingNodeOnly() throws IOException {
+        try (TestServer failing = new TestServer(exchange -> TestServer.send(exchange, 500, "{}"));
+             TestServer working = new TestServer(exchange -> TestServer.send(exchange, 200, "{}"))) {
+            NodePool pool = new NodePool(List.of(origin(failing), origin(working)));
+            HttpTransport transport = new HttpTransport(failing.getBaseUrl(), new Metrics(false), policy(1), pool);
+
+            Set<Integer> statuses = new HashSet<>();
+            for (int i = 0; i < 10; i++) {
+                statuses.add(transport.get("/weather/room/" + i).statusCode());
+            }
+            assertEquals(Set.of(200), statuses);
+            assertEquals("the open breaker keeps requests off the failing node", 1, failing.getRequests());
+
+            String endpoint = Metrics.template("/weather/room/1");
+            Map<String, String> states = transport.getBreakerStates();
+            assertEquals("open", states.get(origin(failing) + endpoint));
+            assertEquals("closed", states.get(origin(working) + endpoint));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package globaldormclient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PasswordHasherTest {
+    private static final String[] PASSWORDS = {"", "1", "password", "p\u00e4ssw\u00f6rd", "\u5bc6\u7801", "\uD83D\uDD11 key",
+            "lone \uD800 surrogate", "x".repeat(1_000)};
+
+    @Test
+    public void hashMatchesTheOriginalHashPassword() throws Exception {
+        for (String password : PASSWORDS) {
+            assertEquals(password, originalHash(password), PasswordHasher.hash(password));
+        }
+    }
+
+    @Test
+    public void verifyAcceptsTheHashInEitherCase() throws Exception {
+        for (String password : PASSWORDS) {
+            String stored = originalHash(password);
+            assertTrue(PasswordHasher.verify(password, stored));
+            assertTrue(PasswordHasher.verify(password, stored.toUpperCase(Locale.ROOT)));
+            assertFalse(PasswordHasher.verify(password + "!", stored));
+        }
+    }
+
+    @Test
+    public void verifyRejectsMalformedStoredHashes() throws Exception {
+        String stored = originalHash("password");
+        assertFalse(PasswordHasher.verify("password", null));
+        assertFalse(PasswordHasher.verify("password", ""));
+        assertFalse(PasswordHasher.verify("password", stored.substring(2)));
+        assertFalse(PasswordHasher.verify("password", stored + "00"));
+        assertFalse(PasswordHasher.verify("password", "zz" + stored.substring(2)));
+        assertFalse(PasswordHasher.verify("password", stored.substring(0, 63) + "g"));
+    }
+
+    @Test
+    public void batchCallsMatchSingleCallsAboveTheParallelThreshold() {
+        int count = 3_000;
+        String[] passwords = new String[count];
+        for (int i = 0; i < count; i++) {
+            passwords[i] = "password" + i;
+        }
+        String[] hashes = PasswordHasher.hashAll(passwords);
+        String[] stored = new String[count];
+        for (int i = 0; i < count; i++) {
+            assertEquals(PasswordHasher.hash(passwords[i]), hashes[i]);
+            stored[i] = i % 3 == 0 ? hashes[(i + 1) % count] : i % 3 == 1 ? null : hashes[i];
+        }
+
+        boolean[] matches = PasswordHasher.verifyAll(passwords, stored);
+        for (int i = 0; i < count; i++) {
+            assertEquals("password " + i, PasswordHasher.verify(passwords[i], stored[i]), matches[i]);
+            assertEquals(i % 3 == 2, matches[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyAllNeedsAHashPerPassword() {
+        PasswordHasher.verifyAll(new String[] {"a", "b"}, new String[] {null});
+    }
+
+    // The client's original hashPassword, kept here as the reference the stored hashes were made with
+    private static String originalHash(String password) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) hexString.append('0');
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+}
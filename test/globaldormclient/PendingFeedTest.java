@@ -0,0 +1,64 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PendingFeedTest {
+    private static final String TWO_PENDING = "[{\"applicationId\":1,\"roomId\":3,\"userId\":\"alice\",\"status\":\"pending\"},"
+            + "{\"applicationId\":2,\"roomId\":4,\"userId\":\"bob\",\"status\":\"pending\"}]";
+
+    private final AtomicReference<String> body = new AtomicReference<>("");
+    private TestServer server;
+    private PendingFeed feed;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer(exchange -> TestServer.send(exchange, 200, body.get()));
+        feed = new PendingFeed(new HttpTransport(server.getBaseUrl()));
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void emptyBodyMeansNothingPending() throws IOException {
+        PendingChanges changes = feed.sync();
+
+        assertEquals(0, changes.getPendingCount());
+        assertTrue(changes.isEmpty());
+        assertFalse(feed.isStale());
+    }
+
+    @Test
+    public void blankBodyMeansNothingPending() throws IOException {
+        body.set(" \n ");
+
+        assertEquals(0, feed.sync().getPendingCount());
+        assertFalse(feed.isStale());
+    }
+
+    @Test
+    public void fullListingIsDiffedAgainstTheLastOne() throws IOException {
+        body.set(TWO_PENDING);
+        assertEquals(2, feed.sync().getAdded().size());
+
+        body.set("");
+        PendingChanges changes = feed.sync();
+        assertEquals(2, changes.getRemoved().size());
+        assertEquals(0, changes.getPendingCount());
+        assertTrue(feed.getPending().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedBodyIsAnIoError() throws IOException {
+        body.set("[{\"applicationId\":\"x\"}]");
+        feed.sync();
+    }
+}
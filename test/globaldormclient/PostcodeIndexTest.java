@@ -0,0 +1,74 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class PostcodeIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PostcodeIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        // Deliberately unsorted, with a header and a malformed line
+        Path csv = folder.getRoot().toPath().resolve("postcodes.csv");
+        Files.writeString(csv, String.join("\n",
+                "postcode,latitude,longitude",
+                "SW1A 1AA,51.501009,-0.141588",
+                "LS1 1UR,53.796000,-1.548000",
+                "broken line",
+                "LS1,53.797000,-1.549000",
+                "M1 1AE,53.477000,-2.230000"), StandardCharsets.UTF_8);
+        index = PostcodeIndex.load(csv);
+    }
+
+    @Test
+    public void haversineMatchesKnownDistances() {
+        // One degree along a meridian, and London to Paris
+        assertEquals(111_195, PostcodeIndex.haversine(0, 0, 1, 0), 1);
+        assertEquals(343_500, PostcodeIndex.haversine(51.5074, -0.1278, 48.8566, 2.3522), 1_000);
+        assertEquals(0, PostcodeIndex.haversine(53.8, -1.5, 53.8, -1.5), 0);
+    }
+
+    @Test
+    public void distanceBetweenTwoPostcodes() {
+        double expected = PostcodeIndex.haversine(51.501009, -0.141588, 53.796, -1.548);
+        assertEquals(expected, index.distance("SW1A 1AA", "LS1 1UR"), 1e-6);
+        assertEquals(expected, index.distance("sw1a1aa", " ls1 1ur "), 1e-6);
+        // Roughly 270 km from Westminster to Leeds
+        assertEquals(270_000, expected, 10_000);
+    }
+
+    @Test
+    public void unknownPostcodeFallsBackToItsOutwardCode() {
+        assertEquals(index.indexOf("LS1"), index.indexOf("LS1 9ZZ"));
+        assertEquals(PostcodeIndex.haversine(53.797, -1.549, 53.477, -2.23),
+                index.distance("LS1 9ZZ", "M1 1AE"), 1e-6);
+    }
+
+    @Test
+    public void unknownPostcodeGivesMinusOne() {
+        assertEquals(-1, index.indexOf("ZZ9 9ZZ"));
+        assertEquals(-1, index.distance("ZZ9 9ZZ", "LS1 1UR"), 0);
+        assertEquals(-1, index.distance("LS1 1UR", "ZZ9 9ZZ"), 0);
+
+        double[] distances = index.distances("M1 1AE", new String[] {"LS1 1UR", "ZZ9 9ZZ", null});
+        assertTrue(distances[0] > 0);
+        assertEquals(-1, distances[1], 0);
+        assertEquals(-1, distances[2], 0);
+    }
+
+    @Test
+    public void loadSkipsHeaderAndMalformedLines() {
+        assertEquals(4, index.size());
+    }
+}
@@ -0,0 +1,123 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ProximityServiceTest {
+    private final AtomicInteger proximityRequests = new AtomicInteger();
+    private TestServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer(exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            if (!exchange.getRequestURI().getPath().endsWith("/proximity")) {
+                TestServer.send(exchange, 200, TestServer.rooms(6));
+                return;
+            }
+            proximityRequests.incrementAndGet();
+            sleep(20);
+            long roomId = Long.parseLong(query.substring(query.indexOf("roomId=") + "roomId=".length()));
+            if (roomId == 4) {
+                TestServer.send(exchange, 200, "{\"routes\":[]}");
+            } else {
+                // Higher room IDs are nearer
+                TestServer.send(exchange, 200, "{\"routes\":[{\"distance\":" + (10 - roomId) * 1000 + "}]}");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void ranksRoomsNearestFirstAndSkipsUnroutable() throws IOException {
+        ProximityService service = service(new HttpTransport(server.getBaseUrl()), 3);
+
+        List<RoomDistance> ranked = service.rankRooms("ls2 9jt", 0);
+
+        assertEquals(List.of(6L, 5L, 3L, 2L, 1L), ids(ranked));
+        assertEquals(4000, ranked.get(0).getDistanceMeters(), 0);
+        assertEquals(List.of(6L, 5L), ids(service.rankRooms("LS2 9JT", 2)));
+    }
+
+    @Test
+    public void distancesAreMemoizedAcrossCalls() throws IOException {
+        ProximityService service = service(new HttpTransport(server.getBaseUrl()), 3);
+
+        assertEquals(8000, service.distanceTo("LS2 9JT", 2), 0);
+        assertEquals(8000, service.distanceTo(" ls2 9jt", 2), 0);
+        assertEquals(1, proximityRequests.get());
+
+        service.rankRooms("LS2 9JT", 0);
+        // Room 2 was already known and room 4 has no route, so it is asked again next time
+        assertEquals(6, proximityRequests.get());
+        service.rankRooms("LS2 9JT", 0);
+        assertEquals(7, proximityRequests.get());
+
+        service.clear();
+        service.distanceTo("LS2 9JT", 2);
+        assertEquals(8, proximityRequests.get());
+    }
+
+    @Test
+    public void rankingKeepsRemoteCallsWithinTheBound() throws IOException {
+        CountingTransport transport = new CountingTransport(server.getBaseUrl());
+        ProximityService service = service(transport, 2);
+
+        assertEquals(5, service.rankRooms("LS2 9JT", 0).size());
+        assertEquals(6, proximityRequests.get());
+        assertEquals(2, transport.maxInFlight.get());
+    }
+
+    private ProximityService service(HttpTransport transport, int maxConcurrent) {
+        return new ProximityService(transport, new RoomCache(transport, Duration.ofMinutes(5)), maxConcurrent);
+    }
+
+    private static List<Long> ids(List<RoomDistance> ranked) {
+        List<Long> ids = new ArrayList<>();
+        for (RoomDistance entry : ranked) {
+            ids.add(entry.getRoom().getId());
+        }
+        return ids;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Tracks how many /proximity lookups are outstanding at once
+    private static class CountingTransport extends HttpTransport {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        CountingTransport(String baseUrl) {
+            super(baseUrl);
+        }
+
+        @Override
+        public CompletableFuture<HttpResponse<String>> getAsync(String path) {
+            if (!path.startsWith("/proximity")) {
+                return super.getAsync(path);
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return super.getAsync(path).whenComplete((response, error) -> inFlight.decrementAndGet());
+        }
+    }
+}
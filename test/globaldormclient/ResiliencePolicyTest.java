@@ -0,0 +1,56 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ResiliencePolicyTest {
+    private static ResiliencePolicy policy(int retries, long backoffMs, long capMs, int breakerFailures) {
+        return new ResiliencePolicy(Duration.ofSeconds(2), Duration.ofSeconds(2), Map.of(), retries,
+                backoffMs, capMs, breakerFailures, 60_000, false);
+    }
+
+    @Test
+    public void backoffIsJitteredUpToTheCappedExponential() {
+        ResiliencePolicy policy = policy(5, 100, 1_000, 5);
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(policy.backoffMillis(1) <= 100);
+            assertTrue(policy.backoffMillis(3) <= 400);
+            long capped = policy.backoffMillis(30); // The shift must not overflow past the cap
+            assertTrue(capped >= 0 && capped <= 1_000);
+        }
+        assertEquals(0, policy(5, 0, 0, 5).backoffMillis(1));
+    }
+
+    @Test
+    public void retriesServerErrorsOnGets() throws IOException {
+        try (TestServer server = new TestServer(exchange -> TestServer.send(exchange, 503, "{}"))) {
+            HttpTransport transport = new HttpTransport(server.getBaseUrl(), new Metrics(false), policy(2, 1, 1, 100));
+
+            HttpResponse<String> response = transport.get("/weather/room/1");
+            assertEquals(503, response.statusCode());
+            assertEquals("one try and two retries", 3, server.getRequests());
+        }
+    }
+
+    @Test
+    public void openBreakerFailsFastWithoutARequest() throws IOException {
+        try (TestServer server = new TestServer(exchange -> TestServer.send(exchange, 500, "{}"))) {
+            HttpTransport transport = new HttpTransport(server.getBaseUrl(), new Metrics(false), policy(0, 0, 0, 2));
+            transport.get("/weather/room/1");
+            transport.get("/weather/room/2");
+            int sent = server.getRequests();
+
+            try {
+                transport.get("/weather/room/3");
+                fail("expected the breaker to be open");
+            } catch (CircuitOpenException expected) {
+                assertEquals(sent, server.getRequests());
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class RoomCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicReference<String> body = new AtomicReference<>(TestServer.rooms(3));
+    private final AtomicReference<String> etag = new AtomicReference<>("\"v1\"");
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile long delayMs;
+    private volatile boolean failing;
+    private TestServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer(exchange -> {
+            sleep(delayMs);
+            if (failing) {
+                TestServer.send(exchange, 500, "{}");
+                return;
+            }
+            String current = etag.get();
+            exchange.getResponseHeaders().set("ETag", current);
+            if (current.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                TestServer.send(exchange, 200, body.get());
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void servesFromMemoryWithinTtl() throws IOException {
+        RoomCache cache = new RoomCache(new HttpTransport(server.getBaseUrl()), Duration.ofMinutes(5));
+        cache.getRooms();
+        cache.findRoom(2);
+        cache.getIndex();
+
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    public void revalidatesWithEtagAndKeepsSnapshotFileOn304() throws IOException {
+        SnapshotStore store = new SnapshotStore(folder.getRoot().toPath());
+        RoomCache cache = new RoomCache(new HttpTransport(server.getBaseUrl()), Duration.ZERO, store);
+        assertEquals(3, cache.getRooms().size());
+        assertNotNull(store.load("rooms"));
+        store.delete("rooms");
+
+        assertEquals(3, cache.getRooms().size());
+        assertEquals(1, notModified.get());
+        assertNull("a 304 must not rewrite the saved catalogue", store.load("rooms"));
+
+        body.set(TestServer.rooms(5));
+        etag.set("\"v2\"");
+        assertEquals(5, cache.getRooms().size());
+        assertEquals("\"v2\"", store.load("rooms").getEtag());
+    }
+
+    @Test
+    public void concurrentReadsShareOneDownloadWithoutHoldingTheLock() throws Exception {
+        RoomCache cache = new RoomCache(new HttpTransport(server.getBaseUrl()), Duration.ofMinutes(5));
+        delayMs = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch ready = new CountDownLatch(8);
+            List<Future<List<Room>>> reads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(pool.submit(() -> {
+                    ready.countDown();
+                    return cache.getRooms();
+                }));
+            }
+            ready.await();
+            Thread.sleep(100); // Let the download start
+
+            long start = System.nanoTime();
+            cache.setTtl(Duration.ofMinutes(5)); // Needs the cache's lock
+            assertTrue("the lock is free while downloading", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 200);
+
+            for (Future<List<Room>> read : reads) {
+                assertEquals(3, read.get(5, TimeUnit.SECONDS).size());
+            }
+            assertEquals(1, server.getRequests());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedDownloadReachesEveryWaiter() throws Exception {
+        try (TestServer failing = new TestServer(exchange -> {
+            sleep(300);
+            TestServer.send(exchange, 404, "{}");
+        })) {
+            RoomCache cache = new RoomCache(new HttpTransport(failing.getBaseUrl()), Duration.ofMinutes(5));
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<List<Room>>> reads = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    reads.add(pool.submit(cache::getRooms));
+                }
+                for (Future<List<Room>> read : reads) {
+                    try {
+                        read.get(5, TimeUnit.SECONDS);
+                        fail("expected the 404 to fail the read");
+                    } catch (ExecutionException e) {
+                        assertTrue(e.getCause() instanceof HttpStatusException);
+                    }
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void malformedCatalogueIsAnIoError() throws IOException {
+        body.set("[{\"id\":1},{\"id\":\"two\"}]");
+        RoomCache cache = new RoomCache(new HttpTransport(server.getBaseUrl()), Duration.ofMinutes(5));
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                switch (i) {
+                    case 0 -> cache.getRooms();
+                    case 1 -> cache.findRoom(1);
+                    default -> cache.getIndex();
+                }
+                fail("expected the bad catalogue to fail");
+            } catch (IOException expected) {
+                assertFalse(expected instanceof HttpStatusException);
+            }
+        }
+    }
+
+    @Test
+    public void pagesComeFromAFreshCatalogueWithoutARequest() throws IOException {
+        RoomCache cache = new RoomCache(new HttpTransport(server.getBaseUrl()), Duration.ofMinutes(5));
+        cache.getRooms(); // As the login prefetch does
+
+        List<Long> ids = new ArrayList<>();
+        try (RoomPager pager = new RoomPager(cache, 2)) {
+            while (pager.hasNextPage()) {
+                for (Room room : pager.nextPage()) {
+                    ids.add(room.getId());
+                }
+            }
+        }
+        assertEquals(List.of(1L, 2L, 3L), ids);
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    public void pageThatLoadsAfterAFailureIsNotStale() throws IOException {
+        ResiliencePolicy noRetries = new ResiliencePolicy(Duration.ofSeconds(2), Duration.ofSeconds(2), Map.of(), 0,
+                0, 0, 100, 60_000, false);
+        RoomCache cache = new RoomCache(new HttpTransport(server.getBaseUrl(), new Metrics(false), noRetries), Duration.ZERO);
+        cache.getRooms();
+
+        failing = true;
+        cache.open("?limit=2&offset=0").close();
+        assertTrue("the failed page was answered from the saved catalogue", cache.isStale());
+
+        failing = false;
+        cache.open("?limit=2&offset=0").close();
+        assertFalse(cache.isStale());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package globaldormclient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoomIndexTest {
+    private static final String[] CITIES = {"Leeds", "Leeds City", "Nottingham", "London"};
+    private static final String[] POSTCODES = {"LS1 1UR", "LS2 9JT", "NG1 4BU", "NG7 2RD", "SW1A 1AA", "ng14bu", null};
+    private static final String[] QUERIES = {
+            "price < 500",
+            "price >= 450 and price <= 470",
+            "price = 455",
+            "city = leeds",
+            "city = Leeds City and price > 480",
+            "near NG1 4BU",
+            "district = ls1 and available >= 2025-09-01",
+            "available < 2025-10-01 sort available",
+            "price < 600 and near NG1 4BU and available >= 2025-09-01 sort price limit 10",
+            "city = Nottingham sort price desc limit 5",
+            "city = Atlantis",
+            "price > 900",
+            "sort price limit 7"
+    };
+
+    @Test
+    public void agreesWithAFullScan() {
+        List<Room> catalogue = catalogue(500);
+        RoomIndex index = new RoomIndex(catalogue);
+
+        for (String text : QUERIES) {
+            RoomQuery query = RoomQuery.parse(text);
+            List<Room> expected = scan(catalogue, query);
+            List<Room> actual = index.query(query);
+
+            assertEquals(text, Math.min(expected.size(), query.getLimit()), actual.size());
+            if (query.getSortField() == null || query.getLimit() == Integer.MAX_VALUE) {
+                assertEquals(text, ids(expected), ids(actual));
+            }
+            for (Room room : actual) {
+                assertTrue(text, matches(room, query));
+            }
+            if (query.getSortField() != null) {
+                assertSorted(text, query, actual);
+                // A limited sort returns the leading keys of the full ordering
+                for (int i = 0; i < actual.size(); i++) {
+                    assertEquals(text, key(query, sorted(expected, query).get(i)), key(query, actual.get(i)), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void emptyCatalogue() {
+        assertTrue(new RoomIndex(new ArrayList<>()).query(RoomQuery.parse("price < 500 sort price limit 3")).isEmpty());
+    }
+
+    private static List<Room> catalogue(int count) {
+        Random random = new Random(7);
+        List<Room> catalogue = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Room room = new Room();
+            room.setId(i + 1);
+            room.setCity(CITIES[random.nextInt(CITIES.length)]);
+            room.setPostcode(POSTCODES[random.nextInt(POSTCODES.length)]);
+            room.setPricePerMonth(400 + random.nextInt(100) + (random.nextBoolean() ? 0.5 : 0));
+            room.setAvailabilityDate(random.nextInt(10) == 0 ? "soon" : String.format("2025-%02d-%02d", 8 + random.nextInt(3), 1 + random.nextInt(28)));
+            catalogue.add(room);
+        }
+        return catalogue;
+    }
+
+    private static List<Room> scan(List<Room> catalogue, RoomQuery query) {
+        List<Room> matching = new ArrayList<>();
+        for (Room room : catalogue) {
+            if (matches(room, query)) {
+                matching.add(room);
+            }
+        }
+        return matching;
+    }
+
+    private static boolean matches(Room room, RoomQuery query) {
+        if (room.getPricePerMonth() < query.getMinPrice() || room.getPricePerMonth() > query.getMaxPrice()) {
+            return false;
+        }
+        if (query.hasDayRange()) {
+            Integer day = RoomQuery.epochDay(room.getAvailabilityDate());
+            if (day == null || day < query.getFromDay() || day > query.getToDay()) {
+                return false;
+            }
+        }
+        if (query.getCity() != null && (room.getCity() == null || !room.getCity().toLowerCase(Locale.ROOT).equals(query.getCity()))) {
+            return false;
+        }
+        return query.getDistrict() == null || query.getDistrict().equals(RoomQuery.district(room.getPostcode()));
+    }
+
+    private static double key(RoomQuery query, Room room) {
+        if (RoomQuery.SORT_PRICE.equals(query.getSortField())) {
+            return room.getPricePerMonth();
+        }
+        Integer day = RoomQuery.epochDay(room.getAvailabilityDate());
+        return day == null ? Integer.MIN_VALUE : day;
+    }
+
+    private static List<Room> sorted(List<Room> rooms, RoomQuery query) {
+        List<Room> sorted = new ArrayList<>(rooms);
+        sorted.sort((a, b) -> Double.compare(key(query, a), key(query, b)) * (query.isDescending() ? -1 : 1));
+        return sorted;
+    }
+
+    private static void assertSorted(String text, RoomQuery query, List<Room> rooms) {
+        for (int i = 1; i < rooms.size(); i++) {
+            int order = Double.compare(key(query, rooms.get(i - 1)), key(query, rooms.get(i)));
+            assertTrue(text, query.isDescending() ? order >= 0 : order <= 0);
+        }
+    }
+
+    private static Set<Long> ids(List<Room> rooms) {
+        Set<Long> ids = new TreeSet<>();
+        for (Room room : rooms) {
+            ids.add(room.getId());
+        }
+        return ids;
+    }
+}
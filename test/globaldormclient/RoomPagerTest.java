@@ -0,0 +1,81 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoomPagerTest {
+    @Test
+    public void pagesThroughServerThatSupportsPaging() throws IOException {
+        StubServer stub = new StubServer(0, 45, 0, 0);
+        stub.start();
+        try {
+            List<Integer> sizes = new ArrayList<>();
+            List<Long> ids = readAllPages(new RoomCache(new HttpTransport(stub.getBaseUrl()), Duration.ZERO), sizes);
+
+            assertEquals(List.of(20, 20, 5), sizes);
+            assertContiguous(ids, 45);
+        } finally {
+            stub.stop();
+        }
+    }
+
+    @Test
+    public void pagesLocallyWhenServerIgnoresPaging() throws IOException {
+        String catalogue = TestServer.rooms(45);
+        try (TestServer server = new TestServer(exchange -> TestServer.send(exchange, 200, catalogue))) {
+            List<Integer> sizes = new ArrayList<>();
+            List<Long> ids = readAllPages(new RoomCache(new HttpTransport(server.getBaseUrl()), Duration.ZERO), sizes);
+
+            assertEquals(List.of(20, 20, 5), sizes);
+            assertContiguous(ids, 45);
+            assertEquals("the rest of the catalogue is read from the first response", 1, server.getRequests());
+        }
+    }
+
+    @Test
+    public void exactMultipleOfPageSizeEndsWithoutEmptyPage() throws IOException {
+        StubServer stub = new StubServer(0, 40, 0, 0);
+        stub.start();
+        try {
+            List<Integer> sizes = new ArrayList<>();
+            readAllPages(new RoomCache(new HttpTransport(stub.getBaseUrl()), Duration.ZERO), sizes);
+
+            assertEquals(List.of(20, 20), sizes);
+        } finally {
+            stub.stop();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedPageIsAnIoError() throws IOException {
+        try (TestServer server = new TestServer(exchange -> TestServer.send(exchange, 200, "[{\"id\":\"x\"}]"))) {
+            new RoomPager(new RoomCache(new HttpTransport(server.getBaseUrl()), Duration.ZERO), 20).nextPage();
+        }
+    }
+
+    private static List<Long> readAllPages(RoomCache cache, List<Integer> sizes) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (RoomPager pager = new RoomPager(cache, 20)) {
+            while (pager.hasNextPage()) {
+                List<Room> page = pager.nextPage();
+                if (!page.isEmpty()) {
+                    sizes.add(page.size());
+                }
+                page.forEach(room -> ids.add(room.getId()));
+            }
+        }
+        return ids;
+    }
+
+    private static void assertContiguous(List<Long> ids, int count) {
+        assertEquals(count, ids.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(ids.get(0) + i, (long) ids.get(i));
+        }
+    }
+}
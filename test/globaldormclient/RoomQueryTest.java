@@ -0,0 +1,55 @@
+package globaldormclient;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoomQueryTest {
+    @Test
+    public void parsesEveryClause() {
+        RoomQuery query = RoomQuery.parse("price < 600, near NG1 4BU and available >= 2025-09-01 sort price desc limit 10");
+
+        assertEquals(Math.nextDown(600.0), query.getMaxPrice(), 0);
+        assertEquals("NG1", query.getDistrict());
+        assertEquals((int) RoomQuery.epochDay("2025-09-01"), query.getFromDay());
+        assertEquals(RoomQuery.SORT_PRICE, query.getSortField());
+        assertTrue(query.isDescending());
+        assertEquals(10, query.getLimit());
+    }
+
+    @Test
+    public void unquotedCityNameMayContainKeywords() {
+        assertEquals("leeds city", RoomQuery.parse("city = Leeds City").getCity());
+        assertEquals("near sawrey", RoomQuery.parse("city = Near Sawrey sort price").getCity());
+
+        RoomQuery query = RoomQuery.parse("city = Leeds City price < 500 limit 3");
+        assertEquals("leeds city", query.getCity());
+        assertEquals(Math.nextDown(500.0), query.getMaxPrice(), 0);
+        assertEquals(3, query.getLimit());
+    }
+
+    @Test
+    public void quotedCityNameIsTakenAsIs() {
+        assertEquals("leeds city", RoomQuery.parse("city = \"Leeds City\" and near ls1").getCity());
+    }
+
+    @Test
+    public void nearMatchesTheOutwardCode() {
+        assertEquals("NG1", RoomQuery.parse("near ng14bu").getDistrict());
+        assertEquals("SW1A", RoomQuery.parse("near SW1A 1AA").getDistrict());
+        assertEquals("M1", RoomQuery.district("M1 1AE"));
+    }
+
+    @Test
+    public void rejectsBadQueries() {
+        for (String text : new String[] {"price 600", "price < cheap", "available > soon", "sort name",
+                "limit 0", "city < Leeds", "bedrooms = 2", "price <"}) {
+            try {
+                RoomQuery.parse(text);
+                fail("expected " + text + " to be rejected");
+            } catch (IllegalArgumentException expected) {
+                assertNotNull(expected.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package globaldormclient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoomStreamTest {
+    @Test
+    public void readsTopLevelArray() throws IOException {
+        List<Room> rooms = readAll("[{\"id\":1,\"name\":\"A\",\"location\":{\"city\":\"Leeds\",\"postcode\":\"LS1 1UR\"},"
+                + "\"details\":{\"furnished\":true,\"amenities\":[\"wifi\",\"desk\"],\"shared_with\":2},"
+                + "\"price_per_month_gbp\":550.5,\"availability_date\":\"2025-09-01\",\"spoken_languages\":[\"en\"]},"
+                + "{\"id\":2,\"name\":null,\"unknown\":{\"nested\":[1,2]}}]");
+
+        assertEquals(2, rooms.size());
+        Room first = rooms.get(0);
+        assertEquals(1, first.getId());
+        assertEquals("Leeds", first.getCity());
+        assertEquals("LS1 1UR", first.getPostcode());
+        assertTrue(first.isFurnished());
+        assertEquals(List.of("wifi", "desk"), first.getAmenities());
+        assertEquals(2, first.getSharedWith());
+        assertEquals(550.5, first.getPricePerMonth(), 0);
+        assertEquals("2025-09-01", first.getAvailabilityDate());
+        assertNull(rooms.get(1).getName());
+    }
+
+    @Test
+    public void readsRoomsArrayInsideObject() throws IOException {
+        List<Room> rooms = readAll("{\"total\":2,\"rooms\":[{\"roomId\":7},{\"id\":8}],\"next\":null}");
+
+        assertEquals(2, rooms.size());
+        assertEquals(7, rooms.get(0).getId());
+        assertEquals(8, rooms.get(1).getId());
+    }
+
+    @Test
+    public void noRoomsWithoutAnArray() throws IOException {
+        assertTrue(readAll("{\"message\":\"none\"}").isEmpty());
+        assertTrue(readAll("\"nothing\"").isEmpty());
+        assertTrue(readAll("[]").isEmpty());
+    }
+
+    @Test
+    public void truncatedBodySurfacesAsIoError() {
+        try {
+            readAll("[{\"id\":1},{\"id\":");
+            fail("expected the truncated body to fail");
+        } catch (IOException | UncheckedIOException expected) {
+            // Either is fine, callers unwrap UncheckedIOException
+        }
+    }
+
+    private static List<Room> readAll(String json) throws IOException {
+        List<Room> rooms = new ArrayList<>();
+        try (RoomStream stream = new RoomStream(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            stream.forEachRemaining(rooms::add);
+        }
+        return rooms;
+    }
+}
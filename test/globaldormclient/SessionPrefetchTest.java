@@ -0,0 +1,80 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SessionPrefetchTest {
+    private final AtomicInteger fetches = new AtomicInteger();
+    private TestServer server;
+    private HttpTransport transport;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer(exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            TestServer.send(exchange, 200, path.contains("/history/") ? "[\"history " + fetches.incrementAndGet() + "\"]" : "[]");
+        });
+        transport = new HttpTransport(server.getBaseUrl());
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void recentPrefetchIsServedAndReplaced() throws Exception {
+        try (SessionPrefetch prefetch = prefetch(60_000)) {
+            prefetch.refreshHistory();
+            waitForHistory(prefetch);
+
+            assertEquals("[\"history 1\"]", prefetch.takeHistory().body());
+            waitForHistory(prefetch);
+            assertEquals("[\"history 2\"]", prefetch.takeHistory().body());
+        }
+    }
+
+    @Test
+    public void expiredPrefetchIsFetchedAgain() throws Exception {
+        try (SessionPrefetch prefetch = prefetch(200)) {
+            prefetch.refreshHistory();
+            waitForHistory(prefetch);
+            Thread.sleep(300);
+
+            assertNull("an expired copy is not served", prefetch.peekHistory());
+            waitForHistory(prefetch);
+            assertEquals("[\"history 2\"]", prefetch.takeHistory().body());
+        }
+    }
+
+    @Test
+    public void discardedHistoryIsFetchedLive() throws Exception {
+        try (SessionPrefetch prefetch = prefetch(60_000)) {
+            prefetch.refreshHistory();
+            waitForHistory(prefetch);
+            prefetch.discardHistory();
+
+            assertNull(prefetch.peekHistory()); // Starts the live fetch
+            waitForHistory(prefetch);
+            assertEquals("[\"history 2\"]", prefetch.takeHistory().body());
+        }
+    }
+
+    private SessionPrefetch prefetch(long maxAgeMillis) {
+        DormApi dormApi = new DormApi(transport);
+        RoomCache roomCache = new RoomCache(transport, Duration.ofMinutes(1));
+        return new SessionPrefetch(dormApi, roomCache, new Session("alice", false), null, maxAgeMillis);
+    }
+
+    private static void waitForHistory(SessionPrefetch prefetch) throws InterruptedException {
+        for (int i = 0; i < 500 && prefetch.peekHistory() == null; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
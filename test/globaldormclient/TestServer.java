@@ -0,0 +1,73 @@
+package globaldormclient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP server for tests that need a backend the stub server can't
+ * imitate, e.g. one that ignores paging or returns a broken body.
+ */
+class TestServer implements Closeable {
+    interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    TestServer(Handler handler) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    // Base URL ending in /rooms, the shape of the real catalogue path
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/rooms";
+    }
+
+    int getRequests() {
+        return requests.get();
+    }
+
+    static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // A JSON array of rooms with IDs from 1 to count
+    static String rooms(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 1; id <= count; id++) {
+            if (id > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(id).append(",\"name\":\"Room ").append(id)
+                    .append("\",\"location\":{\"city\":\"Leeds\",\"postcode\":\"LS1 1UR\"},\"details\":{\"price_per_month_gbp\":")
+                    .append(400 + id).append("},\"price_per_month_gbp\":").append(400 + id).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,116 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class UserJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path snapshot;
+    private Path log;
+    private UserJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        snapshot = folder.getRoot().toPath().resolve("users.json");
+        log = folder.getRoot().toPath().resolve("users.json.log");
+        Files.writeString(snapshot, "[]", StandardCharsets.UTF_8);
+        journal = new UserJournal(snapshot, JsonAdapters.GSON);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    public void replayReturnsAppendedRecordsInOrder() throws IOException {
+        journal.append(new User("alice", "a1", false));
+        journal.append(new User("bob", "b1", true));
+        journal.append(new User("alice", "a2", false));
+        journal.sync();
+
+        List<User> records = new UserJournal(snapshot, JsonAdapters.GSON).replay();
+        assertEquals(3, records.size());
+        assertEquals("alice", records.get(0).getUsername());
+        assertTrue(records.get(1).isAdmin());
+        assertEquals("a2", records.get(2).getPassword());
+    }
+
+    @Test
+    public void replayStopsAtTornTrailingLine() throws IOException {
+        Files.writeString(log, "{\"username\":\"alice\",\"password\":\"a1\",\"isAdmin\":false}\n{\"username\":\"bo",
+                StandardCharsets.UTF_8);
+
+        List<User> records = journal.replay();
+        assertEquals(1, records.size());
+        assertEquals("alice", records.get(0).getUsername());
+        assertEquals(1, journal.getLogRecords());
+    }
+
+    @Test
+    public void tornTrailingLineIsCutOffBeforeTheNextAppend() throws IOException {
+        Files.writeString(log, "{\"username\":\"alice\",\"password\":\"a1\",\"isAdmin\":false}\n{\"username\":\"bo",
+                StandardCharsets.UTF_8);
+        journal.replay();
+        journal.append(new User("carol", "c1", false));
+        journal.sync();
+
+        List<User> records = new UserJournal(snapshot, JsonAdapters.GSON).replay();
+        assertEquals(2, records.size());
+        assertEquals("carol", records.get(1).getUsername());
+    }
+
+    @Test
+    public void unreadableLineInTheMiddleIsSkippedAndBlocksCompaction() throws IOException {
+        Files.writeString(log, "{\"username\":\"alice\",\"password\":\"a1\",\"isAdmin\":false}\n"
+                + "{\"username\":\"bo\n"
+                + "{\"username\":\"carol\",\"password\":\"c1\",\"isAdmin\":false}\n", StandardCharsets.UTF_8);
+        long size = Files.size(log);
+
+        List<User> records = journal.replay();
+        assertEquals(2, records.size());
+        assertEquals("carol", records.get(1).getUsername());
+        assertTrue(journal.isDamaged());
+        try {
+            journal.compact(records);
+            fail("compacting would drop the unreadable record");
+        } catch (IOException expected) {
+            assertEquals(size, Files.size(log));
+        }
+    }
+
+    @Test
+    public void appendAllCommitsTheBatch() throws IOException {
+        journal.appendAll(Arrays.asList(new User("alice", "a1", false), new User("bob", "b1", false)));
+
+        assertEquals(2, journal.getLogRecords());
+        assertEquals(2, Files.readAllLines(log, StandardCharsets.UTF_8).size()); // Already on disk, no sync needed
+    }
+
+    @Test
+    public void compactWritesSnapshotAndEmptiesLog() throws IOException {
+        journal.append(new User("alice", "a1", false));
+        journal.compact(Arrays.asList(new User("alice", "a1", false), new User("bob", "b1", true)));
+
+        assertEquals(0, journal.getLogRecords());
+        assertEquals(0, Files.size(log));
+        assertTrue(journal.replay().isEmpty());
+        User[] users = JsonAdapters.GSON.fromJson(Files.readString(snapshot, StandardCharsets.UTF_8), User[].class);
+        assertEquals(2, users.length);
+        assertEquals("bob", users[1].getUsername());
+        assertFalse(Files.exists(folder.getRoot().toPath().resolve("users.json.tmp")));
+    }
+}
@@ -0,0 +1,90 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class UserRepositoryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+    private UserRepository repository;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.getRoot().toPath().resolve("users.json");
+        Files.writeString(file, "[]", StandardCharsets.UTF_8);
+        repository = new UserRepository(file.toString(), JsonAdapters.GSON);
+    }
+
+    @After
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    public void addedUserSurvivesExternalEditOfTheFile() throws IOException {
+        assertTrue(repository.add(new User("alice", "a1", false)));
+        writeExternally("[{\"username\":\"carol\",\"password\":\"c1\",\"isAdmin\":false}]");
+
+        assertNotNull(repository.find("carol"));
+        assertNotNull("unsynced journal records must survive a reload", repository.find("alice"));
+    }
+
+    @Test
+    public void compactKeepsJournalAndExternalUsers() throws IOException {
+        repository.add(new User("alice", "a1", false));
+        writeExternally("[{\"username\":\"carol\",\"password\":\"c1\",\"isAdmin\":false}]");
+        repository.compact();
+
+        try (UserRepository reopened = new UserRepository(file.toString(), JsonAdapters.GSON)) {
+            assertEquals(2, reopened.size());
+            assertNotNull(reopened.find("alice"));
+            assertNotNull(reopened.find("carol"));
+        }
+    }
+
+    @Test
+    public void corruptJournalLineKeepsLaterUsersAndTheLog() throws IOException {
+        repository.close();
+        Path log = file.resolveSibling("users.json.log");
+        Files.writeString(log, "{\"username\":\"alice\",\"password\":\"a1\",\"isAdmin\":false}\n"
+                + "not json\n"
+                + "{\"username\":\"carol\",\"password\":\"c1\",\"isAdmin\":false}\n", StandardCharsets.UTF_8);
+        String before = Files.readString(log, StandardCharsets.UTF_8);
+
+        repository = new UserRepository(file.toString(), JsonAdapters.GSON);
+        assertNotNull(repository.find("alice"));
+        assertNotNull(repository.find("carol"));
+        repository.close();
+
+        assertEquals("closing must not compact a damaged log", before, Files.readString(log, StandardCharsets.UTF_8));
+        assertEquals("[]", Files.readString(file, StandardCharsets.UTF_8));
+        repository = new UserRepository(file.toString(), JsonAdapters.GSON);
+        assertNotNull(repository.find("carol"));
+    }
+
+    @Test
+    public void addAllReturnsTakenUsernames() throws IOException {
+        repository.add(new User("alice", "a1", false));
+
+        assertEquals(1, repository.addAll(List.of(new User("alice", "x", false), new User("bob", "b1", false))).size());
+        assertEquals("a1", repository.find("alice").getPassword());
+        assertEquals(2, repository.listUsers().size());
+    }
+
+    // A different size is enough for the repository to notice, whatever the mtime resolution
+    private void writeExternally(String json) throws IOException {
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+}
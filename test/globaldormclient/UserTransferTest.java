@@ -0,0 +1,146 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class UserTransferTest {
+    private static final String HASH = "AB" + "0".repeat(62);
+    private static final String STORED_HASH = "ab" + "0".repeat(62); // Stored lower case
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private UserRepository repository;
+    private UserTransfer transfer;
+
+    @Before
+    public void setUp() throws IOException {
+        repository = repository("users.json");
+        transfer = new UserTransfer(repository, 2); // Small batches so every test spans several
+    }
+
+    @After
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    public void importsCsvWithBomQuotesAndHeaderAliases() throws IOException {
+        String csv = "\uFEFFUsername,Password,Admin\n"
+                + "alice,a1,yes\n"
+                + "\n"
+                + "\"smith, bob\",\"say \"\"hi\"\"\",0\n"
+                + "carol,c1,\n";
+
+        UserImportResult result = transfer.importUsers(new StringReader(csv), UserTransfer.Format.CSV);
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getInvalid());
+        assertTrue(repository.find("alice").isAdmin());
+        assertFalse(repository.find("carol").isAdmin());
+        assertTrue(PasswordHasher.verify("say \"hi\"", repository.find("smith, bob").getPassword()));
+    }
+
+    @Test
+    public void reportsInvalidAndExistingRecordsByLine() throws IOException {
+        repository.add(new User("alice", PasswordHasher.hash("a1"), false));
+        String csv = "username,password,passwordHash,isAdmin\n"
+                + "alice,x,,false\n"
+                + "bob,,,false\n"
+                + "carol,c1,,maybe\n"
+                + "dave,,nothex,false\n"
+                + "erin,,," + HASH + "\n"
+                + "frank,,,\n"
+                + "gina,," + HASH + ",true\n"
+                + "gina,g2,,false\n";
+
+        UserImportResult result = transfer.importUsers(new StringReader(csv), UserTransfer.Format.CSV);
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getExisting()); // alice, and the second gina
+        assertEquals(5, result.getInvalid());
+        assertTrue(result.getErrors().contains("line 3: missing password"));
+        assertTrue(result.getErrors().contains("line 4: isAdmin must be true or false: maybe"));
+        assertEquals(STORED_HASH, repository.find("gina").getPassword());
+        assertTrue(repository.find("gina").isAdmin());
+    }
+
+    @Test(expected = IOException.class)
+    public void csvHeaderMustNameTheColumns() throws IOException {
+        transfer.importUsers(new StringReader("name,secret\nalice,a1\n"), UserTransfer.Format.CSV);
+    }
+
+    @Test
+    public void importsJsonLines() throws IOException {
+        String jsonl = "{\"username\":\"alice\",\"password\":\"a1\",\"isAdmin\":true,\"extra\":[1,2]}\n"
+                + "{\"username\":\"bob\",\"passwordHash\":\"" + HASH + "\",\"isAdmin\":\"no\"}\n"
+                + "[\"not\",\"an\",\"object\"]\n"
+                + "{\"username\":{\"first\":\"c\"},\"password\":\"c1\"}\n"
+                + "{\"username\":\"dave\",\"password\":\"d1\",\"isAdmin\":7}\n"
+                + "  {\"username\":\"erin\",\"password\":\"e1\",\"isAdmin\":null}";
+
+        UserImportResult result = transfer.importUsers(new StringReader(jsonl), UserTransfer.Format.JSONL);
+        assertEquals(3, result.getImported());
+        assertEquals(3, result.getInvalid());
+        assertTrue(result.getErrors().contains("record 3: not a JSON object"));
+        assertTrue(result.getErrors().contains("record 4: username must be a string"));
+        assertTrue(PasswordHasher.verify("a1", repository.find("alice").getPassword()));
+        assertEquals(STORED_HASH, repository.find("bob").getPassword());
+        assertFalse(repository.find("erin").isAdmin());
+    }
+
+    @Test
+    public void exportRoundTripsThroughBothFormats() throws IOException {
+        repository.add(new User("alice", PasswordHasher.hash("a1"), true));
+        repository.add(new User("smith, \"bob\"", PasswordHasher.hash("b1"), false));
+
+        for (UserTransfer.Format format : UserTransfer.Format.values()) {
+            StringWriter out = new StringWriter();
+            assertEquals(2, transfer.exportUsers(out, format));
+
+            try (UserRepository copy = repository("copy-" + format + ".json")) {
+                UserImportResult result = new UserTransfer(copy).importUsers(new StringReader(out.toString()), format);
+                assertEquals(format.toString(), 2, result.getImported());
+                for (User user : repository.listUsers()) {
+                    User copied = copy.find(user.getUsername());
+                    assertEquals(user.getPassword(), copied.getPassword());
+                    assertEquals(user.isAdmin(), copied.isAdmin());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void failedJournalWriteStopsTheImport() throws IOException {
+        Files.createDirectory(folder.getRoot().toPath().resolve("users.json.log")); // The journal can't be opened for writing
+        String csv = "username,password\nalice,a1\nbob,b1\ncarol,c1\n";
+
+        UserImportResult result = transfer.importUsers(new StringReader(csv), UserTransfer.Format.CSV);
+        assertNotNull(result.getFailure());
+        assertEquals(0, result.getImported());
+        assertNull("nothing is kept that isn't on disk", repository.find("alice"));
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    public void formatFromNameOrFile() {
+        assertEquals(UserTransfer.Format.JSONL, UserTransfer.Format.of("JSON-Lines"));
+        assertEquals(UserTransfer.Format.CSV, UserTransfer.Format.forFile("users.CSV"));
+        assertEquals(UserTransfer.Format.JSONL, UserTransfer.Format.forFile("-"));
+    }
+
+    private UserRepository repository(String name) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.writeString(file, "[]", StandardCharsets.UTF_8);
+        return new UserRepository(file.toString(), JsonAdapters.GSON);
+    }
+}
@@ -0,0 +1,96 @@
+package globaldormclient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WeatherCacheTest {
+    private static final String FORECAST = "{\"weather\":{\"timepoint\":0,\"temperature\":12,\"cloudcover\":3}}";
+
+    private volatile long delayMs;
+    private TestServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer(exchange -> {
+            sleep(delayMs);
+            TestServer.send(exchange, 200, FORECAST);
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void concurrentLookupsShareOneRequest() {
+        delayMs = 200;
+        WeatherCache cache = new WeatherCache(new HttpTransport(server.getBaseUrl()));
+        List<CompletableFuture<Weather>> lookups = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            lookups.add(cache.getAsync("/weather/room?roomId=1"));
+        }
+
+        for (CompletableFuture<Weather> lookup : lookups) {
+            assertEquals(12, lookup.join().getTemperature());
+        }
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    public void servesFromMemoryWithinTtl() throws IOException {
+        WeatherCache cache = new WeatherCache(new HttpTransport(server.getBaseUrl()));
+        Weather first = cache.getByRoom(1);
+
+        assertSame(first, cache.getByRoom(1));
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    public void expiredForecastIsRefetched() throws IOException {
+        WeatherCache cache = new WeatherCache(new HttpTransport(server.getBaseUrl()), Duration.ofMillis(50), 100);
+        Weather first = cache.getByRoom(1);
+        sleep(100);
+
+        assertNotSame(first, cache.getByRoom(1));
+        assertEquals(2, server.getRequests());
+    }
+
+    @Test
+    public void expiredForecastsAreSweptOnceTheCacheIsFull() throws IOException {
+        WeatherCache cache = new WeatherCache(new HttpTransport(server.getBaseUrl()), Duration.ofMillis(50), 3);
+        cache.getByRoom(1);
+        cache.getByRoom(2);
+        cache.getByRoom(3);
+        sleep(100);
+        cache.getByRoom(4);
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void sizeStaysCappedWhileForecastsAreLive() throws IOException {
+        WeatherCache cache = new WeatherCache(new HttpTransport(server.getBaseUrl()), Duration.ofMinutes(5), 3);
+        for (int roomId = 1; roomId <= 10; roomId++) {
+            cache.getByRoom(roomId);
+        }
+
+        assertEquals(3, cache.size());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}